@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# =============================================================================
+# Address Book Benchmark Runner
+# =============================================================================
+#
+# Builds the application together with the JMH benchmarks in src/bench/java
+# and runs them. No database is needed: every benchmark works on synthetic
+# in-memory contacts.
+#
+# JMH is not vendored; the jars are downloaded once from Maven Central into
+# lib/bench/ (ignored by git).
+#
+# Any arguments are passed to JMH. Examples:
+#   ./run_benchmarks.sh                                   # everything, 10k/1M/10M contacts
+#   ./run_benchmarks.sh ContactSearch -p size=10000       # one benchmark, one size
+#   ./run_benchmarks.sh -p size=10000,1000000 -rf json    # skip 10M, write JSON results
+#   ./run_benchmarks.sh -l                                # list benchmarks
+#
+# The 10M datasets need several GB of heap; set BENCH_HEAP to change the
+# forked JVM's maximum heap (default 8g).
+#
+# =============================================================================
+
+JMH_VERSION="1.37"
+MAVEN_CENTRAL="https://repo1.maven.org/maven2"
+BENCH_LIB="lib/bench"
+BENCH_OUT="out/bench"
+BENCH_HEAP="${BENCH_HEAP:-8g}"
+
+JARS=(
+  "org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar"
+  "org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar"
+  "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar"
+  "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"
+)
+
+mkdir -p "$BENCH_LIB"
+PROCESSOR_PATH=""
+for jar in "${JARS[@]}"; do
+  target="$BENCH_LIB/$(basename "$jar")"
+  # javac does not expand wildcards in -processorpath, so list the jars
+  PROCESSOR_PATH="${PROCESSOR_PATH:+$PROCESSOR_PATH:}$target"
+  if [[ ! -f "$target" ]]; then
+    echo "Downloading $(basename "$jar")..."
+    curl -fsSL "$MAVEN_CENTRAL/$jar" -o "$target.tmp"
+    mv "$target.tmp" "$target"
+  fi
+done
+
+echo "Compiling application and benchmarks..."
+rm -rf "$BENCH_OUT"
+mkdir -p "$BENCH_OUT"
+find src/main/java src/bench/java -name "*.java" > "$BENCH_OUT/sources.list"
+javac --release 17 -encoding UTF-8 -d "$BENCH_OUT" \
+  -cp "lib/*:$BENCH_LIB/*" \
+  -processorpath "$PROCESSOR_PATH" \
+  @"$BENCH_OUT/sources.list"
+echo "Compilation completed."
+
+java -cp "$BENCH_OUT:lib/*:$BENCH_LIB/*" org.openjdk.jmh.Main -jvmArgsAppend "-Xmx$BENCH_HEAP" "$@"
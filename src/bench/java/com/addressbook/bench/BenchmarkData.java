@@ -0,0 +1,21 @@
+package com.addressbook.bench;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.utils.SyntheticContactGenerator;
+
+import java.util.List;
+
+/**
+ * Deterministic synthetic contacts for benchmarks. The same size always
+ * produces the same list, so runs are comparable.
+ */
+public final class BenchmarkData {
+    public static final long SEED = SyntheticContactGenerator.DEFAULT_SEED;
+
+    private BenchmarkData() {
+    }
+
+    public static List<ContactDTO> contacts(int size) {
+        return new SyntheticContactGenerator(SEED).generate(size);
+    }
+}
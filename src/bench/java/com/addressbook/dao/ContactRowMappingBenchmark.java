@@ -0,0 +1,49 @@
+package com.addressbook.dao;
+
+import com.addressbook.bench.BenchmarkData;
+import com.addressbook.model.ContactDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ContactDAO's ResultSet-to-ContactDTO mapping over an in-memory result, so
+ * the numbers show mapping cost rather than network time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactRowMappingBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        resultSet = new InMemoryResultSet(BenchmarkData.contacts(size));
+    }
+
+    @Benchmark
+    public void mapAllRows(Blackhole blackhole) throws Exception {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            blackhole.consume(ContactDAO.mapContact(resultSet));
+        }
+    }
+
+    @Benchmark
+    public void mapTableColumns(Blackhole blackhole) throws Exception {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            ContactDTO contact = new ContactDTO();
+            ContactProjection.TABLE.read(resultSet, contact);
+            blackhole.consume(contact);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.addressbook.logic;
+
+import com.addressbook.bench.BenchmarkData;
+import com.addressbook.model.ContactDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ContactTablePanel.loadContacts: hand a result list to the table model and
+ * render the first screen of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactTableModelBenchmark {
+    private static final int VISIBLE_ROWS = 50;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private List<ContactDTO> contacts;
+    private ContactTableModel model;
+
+    @Setup
+    public void setUp() {
+        contacts = BenchmarkData.contacts(size);
+        model = new ContactTableModel();
+    }
+
+    @Benchmark
+    public void loadContacts(Blackhole blackhole) {
+        model.showContacts(new ArrayList<>(contacts));
+        for (int row = 0; row < VISIBLE_ROWS; row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                blackhole.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.addressbook.logic;
+
+import com.addressbook.bench.BenchmarkData;
+import com.addressbook.model.ContactDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-value cost of the phone and email validators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactValidatorBenchmark {
+    private static final int SAMPLE = 4096;
+
+    private String[] phones;
+    private String[] emails;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<ContactDTO> contacts = BenchmarkData.contacts(SAMPLE);
+        phones = new String[SAMPLE];
+        emails = new String[SAMPLE];
+        for (int i = 0; i < SAMPLE; i++) {
+            phones[i] = contacts.get(i).getPhone();
+            emails[i] = contacts.get(i).getEmail();
+        }
+    }
+
+    @Benchmark
+    public boolean isValidPhone() {
+        return ContactValidator.isValidPhone(phones[next++ & (SAMPLE - 1)]);
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return ContactValidator.isValidEmail(emails[next++ & (SAMPLE - 1)]);
+    }
+}
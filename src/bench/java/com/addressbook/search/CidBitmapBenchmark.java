@@ -0,0 +1,53 @@
+package com.addressbook.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group intersections ("Berlin AND Customers") over the compressed membership
+ * bitmaps: one dense group holding every third contact and one sparse group
+ * holding every 97th.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CidBitmapBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private CidBitmap dense;
+    private CidBitmap sparse;
+
+    @Setup
+    public void setUp() {
+        dense = new CidBitmap();
+        sparse = new CidBitmap();
+        for (int cid = 1; cid <= size; cid++) {
+            if (cid % 3 == 0) {
+                dense.add(cid);
+            }
+            if (cid % 97 == 0) {
+                sparse.add(cid);
+            }
+        }
+    }
+
+    @Benchmark
+    public int intersectionCount() {
+        return dense.andCardinality(sparse);
+    }
+
+    @Benchmark
+    public int[] intersection() {
+        return dense.and(sparse).toArray();
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return dense.contains(size / 2);
+    }
+}
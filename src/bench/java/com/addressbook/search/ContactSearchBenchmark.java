@@ -0,0 +1,37 @@
+package com.addressbook.search;
+
+import com.addressbook.bench.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substring search used by Tools > Search and the table's search field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactSearchBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    // Rare, common and too-short-for-trigrams queries
+    @Param({"schmidt12", "web.de", "mü"})
+    public String query;
+
+    private ContactSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ContactSearchIndex();
+        index.contactsReloaded(BenchmarkData.contacts(size));
+    }
+
+    @Benchmark
+    public int[] search() {
+        return index.matchingIds(ContactSearchIndex.normalize(query));
+    }
+}
@@ -0,0 +1,36 @@
+package com.addressbook.search;
+
+import com.addressbook.bench.BenchmarkData;
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactMerge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full duplicate scan behind "Merge Contacts": blocking, parallel pair scoring
+ * and clustering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class DuplicateFinderBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<ContactDTO> contacts;
+
+    @Setup
+    public void setUp() {
+        contacts = BenchmarkData.contacts(size);
+    }
+
+    @Benchmark
+    public List<ContactMerge> findMerges() {
+        return DuplicateFinder.findMerges(contacts);
+    }
+}
@@ -0,0 +1,37 @@
+package com.addressbook.search;
+
+import com.addressbook.bench.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typo-tolerant name search used by the "Similar spelling" search mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FuzzyNameSearchBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    // Umlaut spelled out, one typo, two typos across two words
+    @Param({"Mueller", "Schmitd", "Lukaz Weber"})
+    public String query;
+
+    private FuzzyNameIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new FuzzyNameIndex();
+        index.contactsReloaded(BenchmarkData.contacts(size));
+    }
+
+    @Benchmark
+    public int[] search() {
+        return index.matchingIds(query);
+    }
+}
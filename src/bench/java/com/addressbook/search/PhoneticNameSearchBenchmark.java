@@ -0,0 +1,36 @@
+package com.addressbook.search;
+
+import com.addressbook.bench.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sound-alike name search used by the "Sounds like" search mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhoneticNameSearchBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"Maier", "Schmitt", "Lucas Weber"})
+    public String query;
+
+    private PhoneticNameIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new PhoneticNameIndex();
+        index.contactsReloaded(BenchmarkData.contacts(size));
+    }
+
+    @Benchmark
+    public int[] search() {
+        return index.matchingIds(query);
+    }
+}
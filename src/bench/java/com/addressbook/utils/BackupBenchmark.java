@@ -0,0 +1,65 @@
+package com.addressbook.utils;
+
+import com.addressbook.bench.BenchmarkData;
+import com.addressbook.model.ContactDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the binary backup format (ToolsService.backupAction
+ * and restoreAction), without file or database I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BackupBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private List<ContactDTO> contacts;
+    private byte[] backup;
+
+    @Setup
+    public void setUp() throws IOException {
+        contacts = BenchmarkData.contacts(size);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 24);
+        write(contacts, out);
+        backup = out.toByteArray();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        write(contacts, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long records = 0;
+        try (BackupReader reader = new BackupReader(new ByteArrayInputStream(backup))) {
+            ContactDTO contact = new ContactDTO();
+            while (reader.peek() == BackupReader.CONTACT) {
+                reader.readContact(contact);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private static void write(List<ContactDTO> contacts, OutputStream out) throws IOException {
+        try (BackupWriter writer = new BackupWriter(out, BackupInfo.full(LocalDateTime.now()))) {
+            for (ContactDTO contact : contacts) {
+                writer.writeContact(contact);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.addressbook.utils;
+
+import com.addressbook.bench.BenchmarkData;
+import com.addressbook.model.ContactDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CSV parse loop of FileService.importFromFile and the format loop of
+ * exportToFile, without file or database I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private List<ContactDTO> contacts;
+    private String csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        contacts = BenchmarkData.contacts(size);
+        StringWriter out = new StringWriter(size * 80);
+        write(contacts, out);
+        csv = out.toString();
+    }
+
+    @Benchmark
+    public long parse(Blackhole blackhole) throws IOException {
+        long records = 0;
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            String[] record;
+            while ((record = reader.readRecord()) != null) {
+                blackhole.consume(record);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    @Benchmark
+    public void format() throws IOException {
+        write(contacts, Writer.nullWriter());
+    }
+
+    private static void write(List<ContactDTO> contacts, Writer out) throws IOException {
+        CsvWriter writer = new CsvWriter(out);
+        writer.writeRecord("FirstName", "LastName", "Location", "Phone", "Email");
+        for (ContactDTO contact : contacts) {
+            writer.writeRecord(contact.getFirstName(), contact.getLastName(), contact.getLocation(),
+                    contact.getPhone(), contact.getEmail());
+        }
+        writer.flush();
+    }
+}
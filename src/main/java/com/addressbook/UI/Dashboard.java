@@ -1,5 +1,6 @@
 package com.addressbook.UI;
 
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.logic.ContactPage;
 import com.addressbook.services.FileService;
 import com.addressbook.services.EditService;
@@ -26,12 +27,15 @@ abstract class AbstractDashboard extends JFrame {
     protected final CardLayout layout = new CardLayout();
     protected ContactPage contactPage;
     
+    // Shared data-access layer; connections are opened in the background
+    protected final DataAccessContext dataAccess = new DataAccessContext();
+
     // Service instances for modular functionality
-    protected final FileService fileService = new FileService();
+    protected final FileService fileService = new FileService(dataAccess);
     protected final EditService editService = new EditService();
-    protected final ContactService contactService = new ContactService();
-    protected final ToolsService toolsService = new ToolsService();
-    protected final DateService dateService = new DateService();
+    protected final ContactService contactService = new ContactService(dataAccess);
+    protected final ToolsService toolsService = new ToolsService(dataAccess);
+    protected final DateService dateService = new DateService(dataAccess);
 
     // Professional color scheme
     protected static final Color PRIMARY_COLOR = new Color(41, 128, 185); // Professional blue
@@ -46,6 +50,7 @@ abstract class AbstractDashboard extends JFrame {
     public AbstractDashboard(String username, String role) {
         this.username = username;
         this.role = role;
+        dataAccess.warmUpAsync();
         initComponents();
     }
 
@@ -535,7 +540,7 @@ abstract class AbstractDashboard extends JFrame {
     }
 
     private void mergeContacts() {
-        contactService.mergeContacts(this);
+        contactService.mergeContacts(this, contactPage::loadContacts);
     }
 
     private void contactGroups() {
@@ -560,7 +565,7 @@ abstract class AbstractDashboard extends JFrame {
     }
 
     private void restoreAction() {
-        toolsService.restoreAction(this);
+        toolsService.restoreAction(this, contactPage::loadContacts);
     }
 
     private void settingsAction() {
@@ -602,7 +607,7 @@ public class Dashboard extends AbstractDashboard {
     @Override
     protected JPanel createDisplayPanel() {
         JPanel displayPanel = new JPanel(layout);
-        contactPage = new ContactPage();
+        contactPage = new ContactPage(dataAccess);
         displayPanel.add("Contacts", contactPage);
         displayPanel.setBackground(CARD_BACKGROUND);
         return displayPanel;
@@ -0,0 +1,708 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactGroup;
+import com.addressbook.model.GroupMembership;
+import com.addressbook.utils.BackupInfo;
+import com.addressbook.utils.BackupReader;
+import com.addressbook.utils.BackupWriter;
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Full and incremental backups of contacts, groups, memberships and user
+ * settings.
+ *
+ * A full backup streams every table in key order into a {@link BackupWriter}.
+ * An incremental backup builds on the latest one in BackupHistory and holds
+ * only the contacts whose updatedAt and the memberships whose addedAt lie at
+ * or after that backup's watermark, found through idx_updatedAt and
+ * idx_groupMembers_addedAt, plus tombstones for the contacts and memberships
+ * removed since (recorded by the triggers on Contacts and ContactGroupMembers).
+ * Groups and settings are small and written in full every time.
+ *
+ * A restore replaces contacts, groups and memberships in one transaction: the
+ * tables are emptied and refilled from the full backup through
+ * SQLServerBulkCopy with table locks and the original identity values, which
+ * SQL Server can log minimally. Each incremental backup is then bulk copied
+ * into temp tables and applied with a DELETE and a MERGE per table; settings
+ * come from the last backup of the chain.
+ */
+public class BackupDAO {
+    private static final Logger LOGGER = Logger.getLogger(BackupDAO.class.getName());
+    private static final DaoMetrics METRICS = DaoMetrics.get();
+    private static final int STREAM_FETCH_SIZE = 5000;
+    // Records between progress callbacks
+    private static final int PROGRESS_INTERVAL = 10_000;
+    // How far an incremental backup reaches back before its parent's watermark, to catch
+    // changes that were stamped before the parent started but committed after it read them
+    private static final int WATERMARK_OVERLAP_SECONDS =
+            Math.max(0, ConnectionFactory.envInt("BACKUP_WATERMARK_OVERLAP_SECONDS", 60));
+
+    // Memberships from files before version 3 carry no addedAt. They are part of the restored
+    // chain, which the next incremental backup builds on, so any time before its watermark is right.
+    private static final Timestamp UNKNOWN_ADDED_AT = Timestamp.valueOf("1900-01-01 00:00:00");
+
+    private static final String MERGE_DELTA =
+            "MERGE Contacts AS target " +
+            "USING (SELECT * FROM #DeltaContacts d WHERE NOT EXISTS (SELECT 1 FROM #DeltaTombstones t WHERE t.cid = d.cid)) AS source " +
+            "ON target.cid = source.cid " +
+            "WHEN MATCHED THEN UPDATE SET firstName = source.firstName, lastName = source.lastName, " +
+            "location = source.location, phone = source.phone, email = source.email, " +
+            "createdAt = source.createdAt, updatedAt = source.updatedAt " +
+            "WHEN NOT MATCHED THEN INSERT (cid, firstName, lastName, location, phone, email, createdAt, updatedAt) " +
+            "VALUES (source.cid, source.firstName, source.lastName, source.location, source.phone, source.email, " +
+            "source.createdAt, source.updatedAt);";
+
+    private static final String MERGE_DELTA_GROUPS =
+            "MERGE ContactGroups AS target " +
+            "USING #DeltaGroups AS source ON target.gid = source.gid " +
+            "WHEN MATCHED AND target.name <> source.name THEN UPDATE SET name = source.name " +
+            "WHEN NOT MATCHED THEN INSERT (gid, name) VALUES (source.gid, source.name);";
+
+    private static final String MERGE_DELTA_MEMBERS =
+            "MERGE ContactGroupMembers AS target " +
+            "USING #DeltaMembers AS source ON target.gid = source.gid AND target.cid = source.cid " +
+            "WHEN MATCHED THEN UPDATE SET addedAt = source.addedAt " +
+            "WHEN NOT MATCHED THEN INSERT (gid, cid, addedAt) VALUES (source.gid, source.cid, source.addedAt);";
+
+    private final ConnectionFactory connectionFactory;
+
+    public BackupDAO(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Starts a full backup, stamped with the database's current time.
+     */
+    public BackupInfo startFullBackup() {
+        try (DaoMetrics.Sample sample = METRICS.start("BackupDAO.startFullBackup");
+             Connection conn = connectionFactory.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT GETDATE()")) {
+            rs.next();
+            sample.complete();
+            return BackupInfo.full(rs.getTimestamp(1).toLocalDateTime());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error starting backup", e);
+            throw new RuntimeException("Failed to start backup", e);
+        }
+    }
+
+    /**
+     * Starts an incremental backup on top of the latest recorded backup, or
+     * returns null if there is none to build on.
+     */
+    public BackupInfo startIncrementalBackup() {
+        String query = "SELECT TOP 1 backupId, watermark, GETDATE() FROM BackupHistory ORDER BY watermark DESC";
+        try (DaoMetrics.Sample sample = METRICS.start("BackupDAO.startIncrementalBackup");
+             Connection conn = connectionFactory.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            sample.complete();
+            if (!rs.next()) {
+                return null;
+            }
+            LocalDateTime since = rs.getTimestamp(2).toLocalDateTime().minusSeconds(WATERMARK_OVERLAP_SECONDS);
+            return BackupInfo.incremental(rs.getLong(1), since, rs.getTimestamp(3).toLocalDateTime());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error starting incremental backup", e);
+            throw new RuntimeException("Failed to start incremental backup", e);
+        }
+    }
+
+    /**
+     * Writes the contacts (all of them, or those changed since the parent
+     * backup followed by tombstones), then groups, memberships (all of them,
+     * or those added since followed by tombstones) and user settings, and
+     * returns the number of records. The progress consumer receives the
+     * number of contacts written so far and may throw to abort.
+     * Memberships are limited to contacts and groups that existed when their
+     * part was read, so a backup taken while others edit never refers to a
+     * row the backup chain does not contain.
+     */
+    public long backup(BackupWriter writer, LongConsumer progress) throws IOException {
+        BackupInfo info = writer.getInfo();
+        try (DaoMetrics.Sample sample = METRICS.start(info.isFull() ? "BackupDAO.backup" : "BackupDAO.backupIncremental");
+             Connection conn = connectionFactory.getConnection()) {
+
+            int maxCid;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT ISNULL(MAX(cid), 0) FROM Contacts")) {
+                rs.next();
+                maxCid = rs.getInt(1);
+            }
+
+            long contacts = 0;
+            String contactQuery = "SELECT " + ContactProjection.ALL.selectList() + " FROM Contacts"
+                    + (info.isFull() ? "" : " WHERE updatedAt >= ?") + " ORDER BY cid";
+            try (PreparedStatement pstmt = conn.prepareStatement(contactQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                if (!info.isFull()) {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(info.getSince()));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    ContactDTO contact = new ContactDTO();
+                    while (rs.next()) {
+                        ContactProjection.ALL.read(rs, contact);
+                        writer.writeContact(contact);
+                        if (++contacts % PROGRESS_INTERVAL == 0) {
+                            progress.accept(contacts);
+                        }
+                    }
+                }
+            }
+            progress.accept(contacts);
+
+            if (!info.isFull()) {
+                // Contacts deleted since; a cid that is back (restored or re-inserted) is written as a contact above
+                String tombstoneQuery = "SELECT t.cid FROM ContactTombstones t WHERE t.deletedAt >= ? "
+                        + "AND NOT EXISTS (SELECT 1 FROM Contacts c WHERE c.cid = t.cid) ORDER BY t.cid";
+                try (PreparedStatement pstmt = conn.prepareStatement(tombstoneQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                    pstmt.setTimestamp(1, Timestamp.valueOf(info.getSince()));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            writer.writeTombstone(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+
+            int maxGid = 0;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT gid, name FROM ContactGroups ORDER BY gid")) {
+                while (rs.next()) {
+                    ContactGroup group = new ContactGroup(rs.getInt(1), rs.getString(2));
+                    writer.writeGroup(group);
+                    maxGid = group.getGid();
+                }
+            }
+
+            String memberQuery = "SELECT gid, cid, addedAt FROM ContactGroupMembers WHERE "
+                    + (info.isFull() ? "" : "addedAt >= ? AND ") + "gid <= ? AND cid <= ? ORDER BY gid, cid";
+            try (PreparedStatement pstmt = conn.prepareStatement(memberQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                int param = 1;
+                if (!info.isFull()) {
+                    pstmt.setTimestamp(param++, Timestamp.valueOf(info.getSince()));
+                }
+                pstmt.setInt(param++, maxGid);
+                pstmt.setInt(param, maxCid);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        writer.writeMembership(new GroupMembership(rs.getInt(1), rs.getInt(2), rs.getTimestamp(3).toLocalDateTime()));
+                    }
+                }
+            }
+
+            if (!info.isFull()) {
+                // Memberships removed since; one that is back is written as a membership above
+                String tombstoneQuery = "SELECT t.gid, t.cid FROM GroupMemberTombstones t WHERE t.deletedAt >= ? "
+                        + "AND NOT EXISTS (SELECT 1 FROM ContactGroupMembers m WHERE m.gid = t.gid AND m.cid = t.cid) "
+                        + "ORDER BY t.gid, t.cid";
+                try (PreparedStatement pstmt = conn.prepareStatement(tombstoneQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                    pstmt.setTimestamp(1, Timestamp.valueOf(info.getSince()));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            writer.writeMembershipTombstone(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+            }
+
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT username, theme FROM UserSettings ORDER BY username")) {
+                while (rs.next()) {
+                    writer.writeSetting(rs.getString(1), rs.getString(2));
+                }
+            }
+            sample.complete(writer.getRecordCount());
+            return writer.getRecordCount();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error writing backup", e);
+            throw new RuntimeException("Failed to write backup", e);
+        }
+    }
+
+    /**
+     * Records a backup whose file was written completely, so the next
+     * incremental backup builds on it. After a full backup, tombstones no
+     * incremental backup will need any more are dropped.
+     */
+    public void recordBackup(BackupInfo info) {
+        String insert = "INSERT INTO BackupHistory (backupId, parentId, watermark) VALUES (?, ?, ?)";
+        String prune = "DELETE FROM ContactTombstones WHERE deletedAt < ?";
+        String pruneMembers = "DELETE FROM GroupMemberTombstones WHERE deletedAt < ?";
+        try (DaoMetrics.Sample sample = METRICS.start("BackupDAO.recordBackup");
+             Connection conn = connectionFactory.getConnection()) {
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+                pstmt.setLong(1, info.getId());
+                if (info.isFull()) {
+                    pstmt.setNull(2, Types.BIGINT);
+                } else {
+                    pstmt.setLong(2, info.getParentId());
+                }
+                pstmt.setTimestamp(3, Timestamp.valueOf(info.getWatermark()));
+                pstmt.executeUpdate();
+            }
+            int pruned = 0;
+            if (info.isFull()) {
+                Timestamp before = Timestamp.valueOf(info.getWatermark().minusSeconds(WATERMARK_OVERLAP_SECONDS));
+                for (String query : new String[]{prune, pruneMembers}) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                        pstmt.setTimestamp(1, before);
+                        pruned += pstmt.executeUpdate();
+                    }
+                }
+            }
+            conn.commit();
+            sample.complete(pruned);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error recording backup", e);
+            throw new RuntimeException("Failed to record backup", e);
+        }
+    }
+
+    /**
+     * Replaces all contacts, groups and memberships with the state saved by a
+     * backup chain: one full backup and any number of incremental backups,
+     * given in any order. User settings are merged into the existing ones.
+     * Runs in one transaction, so a corrupt or truncated file leaves the
+     * database unchanged. The progress consumer receives the number of
+     * records read so far and may throw to abort. Returns the number of
+     * contacts after the restore.
+     */
+    public long restore(Collection<BackupReader> files, LongConsumer progress) throws IOException {
+        List<BackupReader> chain = chain(files);
+        try (DaoMetrics.Sample sample = METRICS.start("BackupDAO.restore");
+             Connection conn = connectionFactory.getConnection()) {
+
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    // Emptying the tables is not a change to back up
+                    stmt.executeUpdate("DISABLE TRIGGER trg_Contacts_tombstones ON Contacts");
+                    stmt.executeUpdate("DISABLE TRIGGER trg_ContactGroupMembers_tombstones ON ContactGroupMembers");
+                    // Contacts and groups are referenced by foreign keys and cannot be truncated
+                    stmt.executeUpdate("TRUNCATE TABLE ContactGroupMembers");
+                    stmt.executeUpdate("DELETE FROM ContactGroups WITH (TABLOCK)");
+                    stmt.executeUpdate("DELETE FROM Contacts WITH (TABLOCK)");
+                }
+
+                SQLServerConnection sqlConn = conn.unwrap(SQLServerConnection.class);
+                RecordSource source = new RecordSource(chain.get(0), progress);
+                bulkCopy(sqlConn, "Contacts", new ContactRows(source));
+                bulkCopy(sqlConn, "ContactGroups", new GroupRows(source));
+                bulkCopy(sqlConn, "ContactGroupMembers", new MembershipRows(source));
+                for (BackupReader delta : chain.subList(1, chain.size())) {
+                    // Settings of earlier backups are superseded
+                    while (source.reader.peek() == BackupReader.SETTING) {
+                        source.reader.skip();
+                    }
+                    expectEnd(source.reader);
+                    source.reader = delta;
+                    applyDelta(conn, sqlConn, source);
+                }
+                restoreSettings(conn, source);
+                expectEnd(source.reader);
+
+                long contacts;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("ENABLE TRIGGER trg_Contacts_tombstones ON Contacts");
+                    stmt.executeUpdate("ENABLE TRIGGER trg_ContactGroupMembers_tombstones ON ContactGroupMembers");
+                    // The restored state is the new starting point for incremental backups
+                    stmt.executeUpdate("TRUNCATE TABLE ContactTombstones");
+                    stmt.executeUpdate("TRUNCATE TABLE GroupMemberTombstones");
+                    stmt.executeUpdate("DELETE FROM BackupHistory");
+                    try (ResultSet rs = stmt.executeQuery("SELECT COUNT_BIG(*) FROM Contacts")) {
+                        rs.next();
+                        contacts = rs.getLong(1);
+                    }
+                }
+                BackupInfo last = source.reader.getInfo();
+                // Version 1 files carry no id, so the next incremental backup needs a new full one
+                if (last.getId() != 0) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "INSERT INTO BackupHistory (backupId, parentId, watermark) VALUES (?, NULL, ?)")) {
+                        pstmt.setLong(1, last.getId());
+                        pstmt.setTimestamp(2, Timestamp.valueOf(last.getWatermark()));
+                        pstmt.executeUpdate();
+                    }
+                }
+
+                conn.commit();
+                sample.complete(source.records);
+                return contacts;
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                // The bulk copy hands read errors back wrapped in SQLExceptions
+                if (e instanceof SQLException && e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error restoring backup", e);
+            throw new RuntimeException("Failed to restore backup", e);
+        }
+    }
+
+    // Orders the files full backup first, each followed by the incremental backup built on it
+    private static List<BackupReader> chain(Collection<BackupReader> files) throws IOException {
+        BackupReader full = null;
+        Map<Long, BackupReader> byParent = new HashMap<>();
+        for (BackupReader file : files) {
+            BackupInfo info = file.getInfo();
+            if (info.isFull()) {
+                if (full != null) {
+                    throw new IOException("Select only one full backup.");
+                }
+                full = file;
+            } else if (byParent.put(info.getParentId(), file) != null) {
+                throw new IOException("Two of the incremental backups build on the same backup.");
+            }
+        }
+        if (full == null) {
+            throw new IOException("Select the full backup the incremental backups build on.");
+        }
+        List<BackupReader> chain = new ArrayList<>();
+        BackupReader next = full;
+        while (next != null) {
+            chain.add(next);
+            next = next.getInfo().getId() != 0 ? byParent.remove(next.getInfo().getId()) : null;
+        }
+        if (!byParent.isEmpty()) {
+            throw new IOException("The incremental backups do not form one chain from the full backup; one is missing.");
+        }
+        return chain;
+    }
+
+    private static void expectEnd(BackupReader reader) throws IOException {
+        if (reader.peek() != BackupReader.END) {
+            throw new IOException("Unexpected record type " + reader.peek() + " in backup");
+        }
+    }
+
+    // Applies one incremental backup: contacts first, as groups and memberships refer to them
+    private static void applyDelta(Connection conn, SQLServerConnection sqlConn, RecordSource source) throws SQLException {
+        applyContactDelta(conn, sqlConn, source);
+        applyGroupDelta(conn, sqlConn, source);
+    }
+
+    // Deletes the tombstoned contacts, with their memberships, then upserts the changed ones
+    private static void applyContactDelta(Connection conn, SQLServerConnection sqlConn, RecordSource source) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE #DeltaContacts (cid INT PRIMARY KEY, firstName NVARCHAR(45) NOT NULL, "
+                    + "lastName NVARCHAR(45) NOT NULL, location NVARCHAR(45), phone VARCHAR(20), email VARCHAR(255) NOT NULL, "
+                    + "createdAt DATETIME, updatedAt DATETIME)");
+            stmt.executeUpdate("CREATE TABLE #DeltaTombstones (cid INT PRIMARY KEY)");
+            bulkCopy(sqlConn, "#DeltaContacts", new ContactRows(source));
+            bulkCopy(sqlConn, "#DeltaTombstones", new TombstoneRows(source));
+
+            // Deletes go first, so a contact re-created under a new cid does not collide with its old row
+            stmt.executeUpdate("DELETE c FROM Contacts c JOIN #DeltaTombstones t ON t.cid = c.cid");
+            stmt.execute("SET IDENTITY_INSERT Contacts ON");
+            try {
+                stmt.executeUpdate(MERGE_DELTA);
+            } finally {
+                // Session-wide; must not stay on for the pooled connection's next user
+                stmt.execute("SET IDENTITY_INSERT Contacts OFF");
+            }
+            stmt.executeUpdate("DROP TABLE #DeltaContacts");
+            stmt.executeUpdate("DROP TABLE #DeltaTombstones");
+        }
+    }
+
+    // Groups come in full: groups missing from the backup are deleted, with their memberships.
+    // Memberships come as the ones added and removed since the parent, except in files before
+    // version 3, which hold all of them and replace the current ones.
+    private static void applyGroupDelta(Connection conn, SQLServerConnection sqlConn, RecordSource source) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE #DeltaGroups (gid INT PRIMARY KEY, name NVARCHAR(100) NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE #DeltaMembers (gid INT NOT NULL, cid INT NOT NULL, addedAt DATETIME NOT NULL, "
+                    + "PRIMARY KEY (gid, cid))");
+            stmt.executeUpdate("CREATE TABLE #DeltaMemberTombstones (gid INT NOT NULL, cid INT NOT NULL, PRIMARY KEY (gid, cid))");
+            bulkCopy(sqlConn, "#DeltaGroups", new GroupRows(source));
+            bulkCopy(sqlConn, "#DeltaMembers", new MembershipRows(source));
+            bulkCopy(sqlConn, "#DeltaMemberTombstones", new MembershipTombstoneRows(source));
+
+            stmt.executeUpdate("DELETE g FROM ContactGroups g WHERE NOT EXISTS (SELECT 1 FROM #DeltaGroups d WHERE d.gid = g.gid)");
+            stmt.execute("SET IDENTITY_INSERT ContactGroups ON");
+            try {
+                stmt.executeUpdate(MERGE_DELTA_GROUPS);
+            } finally {
+                stmt.execute("SET IDENTITY_INSERT ContactGroups OFF");
+            }
+            if (source.reader.getVersion() < 3) {
+                stmt.executeUpdate("TRUNCATE TABLE ContactGroupMembers");
+            }
+            stmt.executeUpdate("DELETE m FROM ContactGroupMembers m JOIN #DeltaMemberTombstones t ON t.gid = m.gid AND t.cid = m.cid");
+            stmt.executeUpdate(MERGE_DELTA_MEMBERS);
+            stmt.executeUpdate("DROP TABLE #DeltaGroups");
+            stmt.executeUpdate("DROP TABLE #DeltaMembers");
+            stmt.executeUpdate("DROP TABLE #DeltaMemberTombstones");
+        }
+    }
+
+    // Returns the number of rows copied
+    private static long bulkCopy(SQLServerConnection conn, String table, BulkRows rows) throws SQLException {
+        SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+        options.setKeepIdentity(true);
+        options.setKeepNulls(true);
+        options.setTableLock(true);
+        options.setCheckConstraints(true);
+        options.setUseInternalTransaction(false);
+        options.setBulkCopyTimeout(0);
+        try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(conn)) {
+            bulkCopy.setBulkCopyOptions(options);
+            bulkCopy.setDestinationTableName(table);
+            for (int ordinal = 1; ordinal <= rows.columns.length; ordinal++) {
+                bulkCopy.addColumnMapping(ordinal, rows.columns[ordinal - 1]);
+            }
+            bulkCopy.writeToServer(rows);
+        }
+        return rows.rows;
+    }
+
+    private static void restoreSettings(Connection conn, RecordSource source) throws SQLException, IOException {
+        String query = "MERGE INTO UserSettings AS target " +
+                "USING (SELECT ? AS username, ? AS theme) AS source " +
+                "ON target.username = source.username " +
+                "WHEN MATCHED THEN UPDATE SET theme = source.theme " +
+                "WHEN NOT MATCHED THEN INSERT (username, theme) VALUES (source.username, source.theme);";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            boolean pending = false;
+            while (source.reader.peek() == BackupReader.SETTING) {
+                String[] setting = source.reader.readSetting();
+                source.advance();
+                pstmt.setString(1, setting[0]);
+                pstmt.setString(2, setting[1]);
+                pstmt.addBatch();
+                pending = true;
+            }
+            if (pending) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    // The current file of the chain plus the record count shared by the bulk sources
+    private static final class RecordSource {
+        BackupReader reader;
+        final LongConsumer progress;
+        long records;
+
+        RecordSource(BackupReader reader, LongConsumer progress) {
+            this.reader = reader;
+            this.progress = progress;
+        }
+
+        void advance() {
+            if (++records % PROGRESS_INTERVAL == 0) {
+                progress.accept(records);
+            }
+        }
+    }
+
+    /**
+     * Feeds the records of one type to SQLServerBulkCopy. Columns are
+     * described by java.sql.Types, precision and scale; row values are
+     * returned in column order.
+     */
+    private abstract static class BulkRows implements ISQLServerBulkData {
+        private static final long serialVersionUID = 1L;
+
+        final transient RecordSource source;
+        final String[] columns;
+        private final int[] types;
+        private final int[] precisions;
+        private final int[] scales;
+        private transient Object[] row;
+        long rows;
+
+        BulkRows(RecordSource source, String[] columns, int[] types, int[] precisions, int[] scales) {
+            this.source = source;
+            this.columns = columns;
+            this.types = types;
+            this.precisions = precisions;
+            this.scales = scales;
+        }
+
+        // Reads the next record of this type into a row, or returns null when the section ends
+        abstract Object[] read(BackupReader reader) throws IOException;
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            Set<Integer> ordinals = new LinkedHashSet<>();
+            for (int ordinal = 1; ordinal <= columns.length; ordinal++) {
+                ordinals.add(ordinal);
+            }
+            return ordinals;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column - 1];
+        }
+
+        @Override
+        public int getColumnType(int column) {
+            return types[column - 1];
+        }
+
+        @Override
+        public int getPrecision(int column) {
+            return precisions[column - 1];
+        }
+
+        @Override
+        public int getScale(int column) {
+            return scales[column - 1];
+        }
+
+        @Override
+        public Object[] getRowData() {
+            return row;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            try {
+                row = read(source.reader);
+            } catch (IOException e) {
+                throw new SQLException("Failed to read backup: " + e.getMessage(), e);
+            }
+            if (row == null) {
+                return false;
+            }
+            rows++;
+            source.advance();
+            return true;
+        }
+    }
+
+    private static final class ContactRows extends BulkRows {
+        private static final long serialVersionUID = 1L;
+        private final transient ContactDTO contact = new ContactDTO();
+
+        ContactRows(RecordSource source) {
+            super(source,
+                    new String[]{"cid", "firstName", "lastName", "location", "phone", "email", "createdAt", "updatedAt"},
+                    new int[]{Types.INTEGER, Types.NVARCHAR, Types.NVARCHAR, Types.NVARCHAR, Types.VARCHAR, Types.VARCHAR,
+                            Types.TIMESTAMP, Types.TIMESTAMP},
+                    new int[]{10, 45, 45, 45, 20, 255, 23, 23},
+                    new int[]{0, 0, 0, 0, 0, 0, 3, 3});
+        }
+
+        @Override
+        Object[] read(BackupReader reader) throws IOException {
+            if (reader.peek() != BackupReader.CONTACT) {
+                return null;
+            }
+            reader.readContact(contact);
+            return new Object[]{contact.getCid(), contact.getFirstName(), contact.getLastName(), contact.getLocation(),
+                    contact.getPhone(), contact.getEmail(), timestamp(contact.getCreatedAt()), timestamp(contact.getUpdatedAt())};
+        }
+    }
+
+    private static final class TombstoneRows extends BulkRows {
+        private static final long serialVersionUID = 1L;
+
+        TombstoneRows(RecordSource source) {
+            super(source, new String[]{"cid"}, new int[]{Types.INTEGER}, new int[]{10}, new int[]{0});
+        }
+
+        @Override
+        Object[] read(BackupReader reader) throws IOException {
+            if (reader.peek() != BackupReader.TOMBSTONE) {
+                return null;
+            }
+            return new Object[]{reader.readTombstone()};
+        }
+    }
+
+    private static final class GroupRows extends BulkRows {
+        private static final long serialVersionUID = 1L;
+
+        GroupRows(RecordSource source) {
+            super(source, new String[]{"gid", "name"}, new int[]{Types.INTEGER, Types.NVARCHAR},
+                    new int[]{10, 100}, new int[]{0, 0});
+        }
+
+        @Override
+        Object[] read(BackupReader reader) throws IOException {
+            if (reader.peek() != BackupReader.GROUP) {
+                return null;
+            }
+            ContactGroup group = reader.readGroup();
+            return new Object[]{group.getGid(), group.getName()};
+        }
+    }
+
+    private static final class MembershipRows extends BulkRows {
+        private static final long serialVersionUID = 1L;
+
+        MembershipRows(RecordSource source) {
+            super(source, new String[]{"gid", "cid", "addedAt"}, new int[]{Types.INTEGER, Types.INTEGER, Types.TIMESTAMP},
+                    new int[]{10, 10, 23}, new int[]{0, 0, 3});
+        }
+
+        @Override
+        Object[] read(BackupReader reader) throws IOException {
+            if (reader.peek() != BackupReader.MEMBERSHIP) {
+                return null;
+            }
+            GroupMembership membership = reader.readMembership();
+            Timestamp addedAt = membership.getAddedAt() != null ? timestamp(membership.getAddedAt()) : UNKNOWN_ADDED_AT;
+            return new Object[]{membership.getGid(), membership.getCid(), addedAt};
+        }
+    }
+
+    private static final class MembershipTombstoneRows extends BulkRows {
+        private static final long serialVersionUID = 1L;
+
+        MembershipTombstoneRows(RecordSource source) {
+            super(source, new String[]{"gid", "cid"}, new int[]{Types.INTEGER, Types.INTEGER},
+                    new int[]{10, 10}, new int[]{0, 0});
+        }
+
+        @Override
+        Object[] read(BackupReader reader) throws IOException {
+            if (reader.peek() != BackupReader.MEMBERSHIP_TOMBSTONE) {
+                return null;
+            }
+            int[] membership = reader.readMembershipTombstone();
+            return new Object[]{membership[0], membership[1]};
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactMerge;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * ContactDAO with a process-wide in-memory copy of the Contacts table, keyed by cid.
+ *
+ * Full-table reads are answered from memory. Writes go to the database first and
+ * then through to the cache. External changes are picked up by an incremental
+ * refresh against the updatedAt column, at most once per refresh interval; when
+ * the row count no longer matches (rows deleted elsewhere) the cache is reloaded.
+ * Callers always receive copies, so editing a returned contact never touches the cache.
+ */
+public class CachedContactDAO extends ContactDAO {
+    private static final Logger LOGGER = Logger.getLogger(CachedContactDAO.class.getName());
+
+    private static final long REFRESH_INTERVAL_NANOS =
+            TimeUnit.SECONDS.toNanos(ConnectionFactory.envInt("CONTACT_CACHE_REFRESH_SECONDS", 5));
+
+    // Guards swapping and mutating the map so a refresh cannot overwrite a newer write-through
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ContactCacheListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Map<Integer, ContactDTO> contacts;
+    private volatile boolean stale;
+    private volatile long lastSyncNanos;
+    private LocalDateTime watermark;
+
+    public CachedContactDAO(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    public int addContact(ContactDTO contact) {
+        int cid = super.addContact(contact);
+        if (cid > 0) {
+            ContactDTO cached = contact.copy();
+            cached.setCid(cid);
+            writeThrough(cached);
+        } else {
+            // Without the generated key the new row is picked up by the next refresh
+            stale = true;
+        }
+        return cid;
+    }
+
+    @Override
+    public int addContactsBatch(List<ContactDTO> contacts) {
+        int inserted = super.addContactsBatch(contacts);
+        // Rows that were rejected keep cid 0
+        for (ContactDTO contact : contacts) {
+            if (contact.getCid() > 0) {
+                writeThrough(contact.copy());
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public void updateContact(ContactDTO contact) {
+        super.updateContact(contact);
+        writeThrough(contact.copy());
+    }
+
+    @Override
+    public void deleteContact(int cid) {
+        super.deleteContact(cid);
+        lock.lock();
+        try {
+            Map<Integer, ContactDTO> current = contacts;
+            if (current != null) {
+                remove(current, cid);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteContacts(Collection<Integer> cids) {
+        int deleted = super.deleteContacts(cids);
+        lock.lock();
+        try {
+            Map<Integer, ContactDTO> current = contacts;
+            if (current != null) {
+                for (int cid : cids) {
+                    remove(current, cid);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return deleted;
+    }
+
+    @Override
+    public int mergeContacts(List<ContactMerge> merges) {
+        int deleted = super.mergeContacts(merges);
+        lock.lock();
+        try {
+            for (ContactCacheListener listener : listeners) {
+                listener.contactsMerged(merges);
+            }
+            Map<Integer, ContactDTO> current = contacts;
+            if (current != null) {
+                for (ContactMerge merge : merges) {
+                    for (int cid : merge.getRemovedCids()) {
+                        remove(current, cid);
+                    }
+                    writeThrough(merge.getMerged().copy());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<ContactDTO> getAllContacts() {
+        List<ContactDTO> result = snapshot();
+        result.sort(Comparator.comparingInt(ContactDTO::getCid));
+        return result;
+    }
+
+    // The cache holds every column, so a projection saves nothing here
+    @Override
+    public List<ContactDTO> getAllContacts(ContactProjection projection) {
+        return getAllContacts();
+    }
+
+    @Override
+    public List<ContactDTO> getContactsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        List<ContactDTO> result = new ArrayList<>();
+        for (ContactDTO contact : snapshot()) {
+            LocalDateTime createdAt = contact.getCreatedAt();
+            if (createdAt != null && !createdAt.isBefore(startDate) && !createdAt.isAfter(endDate)) {
+                result.add(contact);
+            }
+        }
+        result.sort(Comparator.comparing(ContactDTO::getCreatedAt).reversed());
+        return result;
+    }
+
+    @Override
+    public List<ContactDTO> getContactsByDateRange(LocalDateTime startDate, LocalDateTime endDate, ContactProjection projection) {
+        return getContactsByDateRange(startDate, endDate);
+    }
+
+    /**
+     * Brings the cache up to date if the refresh interval has passed.
+     */
+    public void sync() {
+        fresh();
+    }
+
+    /**
+     * Returns copies of the cached contacts with the given ids, in the given
+     * order; ids that are not cached are skipped. Does not refresh.
+     */
+    public List<ContactDTO> getCachedContacts(int[] cids) {
+        Map<Integer, ContactDTO> current = contacts;
+        List<ContactDTO> result = new ArrayList<>(cids.length);
+        if (current != null) {
+            for (int cid : cids) {
+                ContactDTO contact = current.get(cid);
+                if (contact != null) {
+                    result.add(contact.copy());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers a listener. If the cache is already loaded the listener is
+     * immediately told about its current contents.
+     */
+    public void addListener(ContactCacheListener listener) {
+        lock.lock();
+        try {
+            listeners.add(listener);
+            Map<Integer, ContactDTO> current = contacts;
+            if (current != null) {
+                listener.contactsReloaded(Collections.unmodifiableCollection(current.values()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the next read to refresh from the database, e.g. after bulk changes
+     * made outside this DAO.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Reads every contact again and notifies the listeners, e.g. after a
+     * restore replaced the table. An incremental refresh would miss restored
+     * rows whose updatedAt is older than the watermark.
+     */
+    public void reloadAll() {
+        lock.lock();
+        try {
+            if (contacts != null) {
+                reload();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<ContactDTO> snapshot() {
+        Map<Integer, ContactDTO> current = fresh();
+        List<ContactDTO> result = new ArrayList<>(current.size());
+        for (ContactDTO contact : current.values()) {
+            result.add(contact.copy());
+        }
+        return result;
+    }
+
+    private Map<Integer, ContactDTO> fresh() {
+        Map<Integer, ContactDTO> current = contacts;
+        if (current != null && !stale && System.nanoTime() - lastSyncNanos < REFRESH_INTERVAL_NANOS) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = contacts;
+            if (current == null) {
+                reload();
+            } else if (stale || System.nanoTime() - lastSyncNanos >= REFRESH_INTERVAL_NANOS) {
+                refresh(current);
+            }
+            return contacts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void reload() {
+        stale = false;
+        List<ContactDTO> rows = super.getAllContacts(ContactProjection.ALL);
+        Map<Integer, ContactDTO> loaded = new ConcurrentHashMap<>(Math.max(16, rows.size() * 4 / 3 + 1));
+        LocalDateTime newest = null;
+        for (ContactDTO contact : rows) {
+            loaded.put(contact.getCid(), contact);
+            newest = later(newest, contact.getUpdatedAt());
+        }
+        contacts = loaded;
+        watermark = newest;
+        for (ContactCacheListener listener : listeners) {
+            listener.contactsReloaded(Collections.unmodifiableCollection(loaded.values()));
+        }
+        lastSyncNanos = System.nanoTime();
+        LOGGER.fine("Loaded " + loaded.size() + " contacts into cache.");
+    }
+
+    // Called with the lock held
+    private void refresh(Map<Integer, ContactDTO> current) {
+        if (watermark == null) {
+            reload();
+            return;
+        }
+        stale = false;
+        // >= re-reads rows sharing the watermark timestamp, which is harmless
+        List<ContactDTO> changed = getContactsModifiedSince(watermark);
+        for (ContactDTO contact : changed) {
+            put(current, contact);
+            watermark = later(watermark, contact.getUpdatedAt());
+        }
+        // Deletes leave no trace in updatedAt; a count mismatch means rows vanished elsewhere
+        if (countContacts() != current.size()) {
+            reload();
+            return;
+        }
+        lastSyncNanos = System.nanoTime();
+        if (!changed.isEmpty()) {
+            LOGGER.fine("Refreshed " + changed.size() + " cached contacts.");
+        }
+    }
+
+    private void writeThrough(ContactDTO contact) {
+        lock.lock();
+        try {
+            Map<Integer, ContactDTO> current = contacts;
+            if (current == null) {
+                return;
+            }
+            ContactDTO previous = current.get(contact.getCid());
+            if (previous != null && contact.getCreatedAt() == null) {
+                contact.setCreatedAt(previous.getCreatedAt());
+            }
+            put(current, contact);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void put(Map<Integer, ContactDTO> current, ContactDTO contact) {
+        current.put(contact.getCid(), contact);
+        for (ContactCacheListener listener : listeners) {
+            listener.contactUpserted(contact);
+        }
+    }
+
+    // Called with the lock held
+    private void remove(Map<Integer, ContactDTO> current, int cid) {
+        if (current.remove(cid) != null) {
+            for (ContactCacheListener listener : listeners) {
+                listener.contactRemoved(cid);
+            }
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
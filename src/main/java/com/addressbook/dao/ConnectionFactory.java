@@ -1,7 +1,6 @@
 package com.addressbook.dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -29,7 +28,14 @@ public class ConnectionFactory implements IConnectionFactory {
 
     private static final Logger LOGGER = Logger.getLogger(ConnectionFactory.class.getName());
 
-    private Connection connection;
+    // Pool sizing and timeouts, overridable via env vars
+    private static final int POOL_MIN_SIZE = envInt("DB_POOL_MIN_SIZE", 1);
+    private static final int POOL_MAX_SIZE = envInt("DB_POOL_MAX_SIZE", 10);
+    private static final int POOL_IDLE_TIMEOUT_SECONDS = envInt("DB_POOL_IDLE_TIMEOUT_SECONDS", 300);
+    private static final int POOL_MAX_WAIT_SECONDS = envInt("DB_POOL_MAX_WAIT_SECONDS", 30);
+    private static final int POOL_LEAK_THRESHOLD_SECONDS = envInt("DB_POOL_LEAK_THRESHOLD_SECONDS", 60);
+
+    private final ConnectionPool pool;
 
     public ConnectionFactory() {
         try {
@@ -37,25 +43,46 @@ public class ConnectionFactory implements IConnectionFactory {
                 throw new IllegalStateException("DB_PASSWORD environment variable is required. See README 'Configuration'.");
             }
             Class.forName(DRIVER);
-            connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-        } catch (ClassNotFoundException | SQLException e) {
+        } catch (ClassNotFoundException e) {
             LOGGER.log(Level.SEVERE, "Error initializing ConnectionFactory", e);
             throw new RuntimeException("Failed to initialize ConnectionFactory", e);
         }
+
+        // No physical connection is opened here; the pool opens them on first borrow or warm-up
+        pool = new ConnectionPool(URL, USERNAME, PASSWORD,
+                POOL_MIN_SIZE, POOL_MAX_SIZE,
+                POOL_IDLE_TIMEOUT_SECONDS * 1000L,
+                POOL_MAX_WAIT_SECONDS * 1000L,
+                POOL_LEAK_THRESHOLD_SECONDS * 1000L);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "connection-pool-shutdown"));
     }
 
     @Override
     public Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
-                Class.forName(DRIVER);
-                connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-                LOGGER.info("Connected successfully.");
-            }
-        } catch (ClassNotFoundException | SQLException e) {
+        try (DaoMetrics.Sample sample = DaoMetrics.get().start("ConnectionFactory.getConnection")) {
+            Connection connection = pool.borrow();
+            sample.complete();
+            return connection;
+        } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting connection", e);
             throw new RuntimeException("Failed to get connection", e);
         }
-        return connection;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    static int envInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Ignoring invalid " + name + "=" + value + ", using " + defaultValue);
+            return defaultValue;
+        }
     }
 }
\ No newline at end of file
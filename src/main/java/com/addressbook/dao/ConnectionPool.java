@@ -0,0 +1,398 @@
+package com.addressbook.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of physical SQL Server connections.
+ *
+ * Borrowed connections are handed out as proxies whose close() returns the
+ * physical connection to the pool, so DAOs keep using try-with-resources.
+ * Idle connections above the minimum size are evicted after the idle timeout,
+ * connections that sat idle are validated before they are handed out again,
+ * and leases held longer than the leak threshold are logged with the stack
+ * trace of the borrower.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Connections used within this window are trusted without a validation round-trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long maxWaitMillis;
+    private final long leakThresholdMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Lease> leases = new IdentityHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private int totalCount;
+    private boolean closed;
+
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long maxWaitMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured maximum wait time
+     * when every connection is in use.
+     */
+    public Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (candidate == null && !create) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate == null) {
+                        if (totalCount < maxSize) {
+                            totalCount++;
+                            create = true;
+                        } else {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                throw new SQLException("Timed out after " + maxWaitMillis
+                                        + " ms waiting for a connection (pool size " + maxSize + ")");
+                            }
+                            released.awaitNanos(remaining);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    candidate = new PooledConnection(openPhysical());
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            return lease(candidate);
+        }
+    }
+
+    /**
+     * Opens connections until the pool holds at least the minimum size.
+     */
+    public void fill() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalCount >= minSize) {
+                    return;
+                }
+                totalCount++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PooledConnection connection = new PooledConnection(openPhysical());
+                lock.lock();
+                try {
+                    idle.offerFirst(connection);
+                    released.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                discard(null);
+                LOGGER.log(Level.WARNING, "Could not pre-open pooled connection", e);
+                return;
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return leases.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return totalCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            totalCount -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(PooledConnection::closeQuietly);
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        LOGGER.fine("Opened pooled connection.");
+        return connection;
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        if (System.currentTimeMillis() - connection.lastUsed < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return connection.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledConnection connection) {
+        Lease lease = new Lease(connection, leakThresholdMillis > 0
+                ? new Exception("Connection borrowed here") : null);
+        lock.lock();
+        try {
+            leases.put(connection, lease);
+        } finally {
+            lock.unlock();
+        }
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+    }
+
+    private void release(Lease lease) {
+        PooledConnection connection = lease.connection;
+        boolean reusable = reset(connection.physical);
+        connection.lastUsed = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            leases.remove(connection);
+            if (reusable && !closed) {
+                idle.offerFirst(connection);
+                released.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(connection);
+    }
+
+    // Undo any per-lease state so the next borrower starts from a clean connection
+    private boolean reset(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Discarding pooled connection that could not be reset", e);
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        lock.lock();
+        try {
+            totalCount--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (connection != null) {
+            connection.closeQuietly();
+        }
+    }
+
+    private void housekeep() {
+        List<PooledConnection> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            // Oldest idle connections sit at the tail of the deque
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalCount - expired.size() > minSize) {
+                PooledConnection connection = it.next();
+                if (now - connection.lastUsed >= idleTimeoutMillis) {
+                    it.remove();
+                    expired.add(connection);
+                }
+            }
+            totalCount -= expired.size();
+
+            if (leakThresholdMillis > 0) {
+                for (Lease lease : leases.values()) {
+                    if (!lease.reported && now - lease.borrowedAt >= leakThresholdMillis) {
+                        lease.reported = true;
+                        LOGGER.log(Level.WARNING, "Possible connection leak: connection held for "
+                                + (now - lease.borrowedAt) + " ms", lease.borrowSite);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        expired.forEach(PooledConnection::closeQuietly);
+        fill();
+    }
+
+    private static final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+            }
+        }
+    }
+
+    // One borrow of a pooled connection; becomes unusable once closed
+    private final class Lease implements InvocationHandler {
+        final PooledConnection connection;
+        final Exception borrowSite;
+        final long borrowedAt = System.currentTimeMillis();
+        volatile boolean reported;
+        private boolean returned;
+
+        Lease(PooledConnection connection, Exception borrowSite) {
+            this.connection = connection;
+            this.borrowSite = borrowSite;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!returned) {
+                            returned = true;
+                            release(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    synchronized (this) {
+                        return returned || connection.physical.isClosed();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + connection.physical + "]";
+                case "unwrap":
+                case "isWrapperFor":
+                    break;
+                default:
+                    synchronized (this) {
+                        if (returned) {
+                            throw new SQLException("Connection has already been returned to the pool");
+                        }
+                    }
+            }
+            try {
+                return method.invoke(connection.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactMerge;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Observes changes to the contact cache, e.g. to keep a search index in step.
+ *
+ * Callbacks run on the thread that changed the cache while the cache lock is
+ * held, so they must be quick and must not call back into the DAO. The
+ * contacts passed in are the cached instances and must not be modified.
+ */
+public interface ContactCacheListener {
+    void contactsReloaded(Collection<ContactDTO> contacts);
+
+    void contactUpserted(ContactDTO contact);
+
+    void contactRemoved(int cid);
+
+    // Called after the merges are stored and before their removed members are removed
+    default void contactsMerged(List<ContactMerge> merges) {
+    }
+}
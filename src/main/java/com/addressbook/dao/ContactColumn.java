@@ -0,0 +1,47 @@
+package com.addressbook.dao;
+
+/**
+ * Columns of the Contacts table that callers may sort on.
+ */
+public enum ContactColumn {
+    CID("cid", false, 0),
+    FIRST_NAME("firstName", false, 0),
+    LAST_NAME("lastName", false, 0),
+    LOCATION("location", true, 0),
+    PHONE("phone", true, 20),
+    EMAIL("email", false, 255),
+    CREATED_AT("createdAt", true, 0),
+    UPDATED_AT("updatedAt", true, 0);
+
+    private final String columnName;
+    private final boolean nullable;
+    // Length of a non-Unicode VARCHAR column, 0 for any other type
+    private final int varcharLength;
+
+    ContactColumn(String columnName, boolean nullable, int varcharLength) {
+        this.columnName = columnName;
+        this.nullable = nullable;
+        this.varcharLength = varcharLength;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public boolean isTimestamp() {
+        return this == CREATED_AT || this == UPDATED_AT;
+    }
+
+    /**
+     * Placeholder for a value compared with this column. The driver sends strings
+     * as NVARCHAR, which would convert a VARCHAR column and scan its index, so
+     * for those columns the parameter is cast to the column's type instead.
+     */
+    public String parameter() {
+        return varcharLength > 0 ? "CAST(? AS VARCHAR(" + varcharLength + "))" : "?";
+    }
+}
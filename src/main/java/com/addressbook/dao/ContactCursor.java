@@ -0,0 +1,118 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort column, direction and the (value, cid) pair of
+ * the last row of a page. Encoded as URL-safe Base64 so callers can store it
+ * as a plain string.
+ */
+final class ContactCursor {
+    private static final byte VERSION = 1;
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte INT_VALUE = 2;
+    private static final byte TIMESTAMP_VALUE = 3;
+
+    final ContactColumn column;
+    final boolean ascending;
+    final Object value;
+    final int cid;
+
+    private ContactCursor(ContactColumn column, boolean ascending, Object value, int cid) {
+        this.column = column;
+        this.ascending = ascending;
+        this.value = value;
+        this.cid = cid;
+    }
+
+    static ContactCursor after(ContactDTO contact, ContactColumn column, boolean ascending) {
+        return new ContactCursor(column, ascending, sortValue(contact, column), contact.getCid());
+    }
+
+    // Value of the sort column as it should be bound to a PreparedStatement
+    static Object sortValue(ContactDTO contact, ContactColumn column) {
+        switch (column) {
+            case CID: return contact.getCid();
+            case FIRST_NAME: return contact.getFirstName();
+            case LAST_NAME: return contact.getLastName();
+            case LOCATION: return contact.getLocation();
+            case PHONE: return contact.getPhone();
+            case EMAIL: return contact.getEmail();
+            case CREATED_AT: return toTimestamp(contact.getCreatedAt());
+            case UPDATED_AT: return toTimestamp(contact.getUpdatedAt());
+            default: throw new IllegalArgumentException("Unsupported sort column: " + column);
+        }
+    }
+
+    String encode() {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(column.name());
+            out.writeBoolean(ascending);
+            out.writeInt(cid);
+            if (value == null) {
+                out.writeByte(NULL_VALUE);
+            } else if (value instanceof String s) {
+                out.writeByte(STRING_VALUE);
+                out.writeUTF(s);
+            } else if (value instanceof Integer i) {
+                out.writeByte(INT_VALUE);
+                out.writeInt(i);
+            } else {
+                Timestamp ts = (Timestamp) value;
+                out.writeByte(TIMESTAMP_VALUE);
+                out.writeLong(ts.getTime());
+                out.writeInt(ts.getNanos());
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    static ContactCursor decode(String token, ContactColumn expectedColumn, boolean expectedAscending) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor version");
+            }
+            ContactColumn column = ContactColumn.valueOf(in.readUTF());
+            boolean ascending = in.readBoolean();
+            int cid = in.readInt();
+            Object value;
+            switch (in.readByte()) {
+                case NULL_VALUE -> value = null;
+                case STRING_VALUE -> value = in.readUTF();
+                case INT_VALUE -> value = in.readInt();
+                case TIMESTAMP_VALUE -> {
+                    Timestamp ts = new Timestamp(in.readLong());
+                    ts.setNanos(in.readInt());
+                    value = ts;
+                }
+                default -> throw new IllegalArgumentException("Corrupt cursor value");
+            }
+            if (column != expectedColumn || ascending != expectedAscending) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            return new ContactCursor(column, ascending, value, cid);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
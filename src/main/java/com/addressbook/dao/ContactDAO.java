@@ -1,11 +1,18 @@
 package com.addressbook.dao;
 
 import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactMerge;
+import com.addressbook.model.ContactSlice;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import com.addressbook.model.ContactStatistics;
@@ -25,35 +32,144 @@ interface ContactDAOInterface {
 public class ContactDAO implements ContactDAOInterface {
     private final ConnectionFactory connectionFactory;
     private static final Logger LOGGER = Logger.getLogger(ContactDAO.class.getName());
+    private static final DaoMetrics METRICS = DaoMetrics.get();
+    private static final int STREAM_FETCH_SIZE = 5000;
+    private static final int BATCH_SIZE = Math.max(1, ConnectionFactory.envInt("IMPORT_BATCH_SIZE", 1000));
+    // Rows per multi-row INSERT; at 5 parameters a row this stays under SQL Server's 2100-parameter limit
+    private static final int ROWS_PER_INSERT = 400;
+    // Takes the ids as one comma-separated string, see deleteContacts
+    private static final String DELETE_BY_IDS =
+            "DELETE FROM Contacts WHERE cid IN (SELECT CAST(value AS INT) FROM STRING_SPLIT(?, ','))";
 
-    public ContactDAO() {
-        this.connectionFactory = new ConnectionFactory();
+    public ContactDAO(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
     }
 
+    // Inserts the contact and fills in its generated cid, createdAt and updatedAt.
+    // Returns the new cid.
     @Override
     public int addContact(ContactDTO contact) {
-        String query = "INSERT INTO Contacts (firstName, lastName, location, phone, email) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = connectionFactory.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setString(1, contact.getFirstName());
-            pstmt.setString(2, contact.getLastName());
-            pstmt.setString(3, contact.getLocation());
-            pstmt.setString(4, contact.getPhone());
-            pstmt.setString(5, contact.getEmail());
-            pstmt.executeUpdate();
-
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.addContact");
+             Connection conn = connectionFactory.getConnection()) {
+            insertRows(conn, List.of(contact));
+            sample.complete(1);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error adding contact", e);
             throw new RuntimeException("Failed to add contact", e);
         }
-        return 0; // You may want to return the generated ID instead
+        return contact.getCid();
+    }
+
+    // Insert many contacts in transactions of BATCH_SIZE rows, each sent as multi-row INSERTs.
+    // Inserted contacts get their generated cid and timestamps. If a batch is rejected it is
+    // rolled back and retried row by row, so one bad row only costs itself; rows that fail
+    // keep cid 0. Returns the number of rows inserted.
+    public int addContactsBatch(List<ContactDTO> contacts) {
+        int inserted = 0;
+        for (int from = 0; from < contacts.size(); from += BATCH_SIZE) {
+            inserted += insertBatch(contacts.subList(from, Math.min(contacts.size(), from + BATCH_SIZE)));
+        }
+        return inserted;
+    }
+
+    // Number of rows callers should buffer before calling addContactsBatch
+    public int getBatchSize() {
+        return BATCH_SIZE;
+    }
+
+    private int insertBatch(List<ContactDTO> batch) {
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.addContactsBatch");
+             Connection conn = connectionFactory.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < batch.size(); from += ROWS_PER_INSERT) {
+                    insertRows(conn, batch.subList(from, Math.min(batch.size(), from + ROWS_PER_INSERT)));
+                }
+                conn.commit();
+                sample.complete(batch.size());
+                return batch.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                // Keys handed out before the rollback no longer exist
+                for (ContactDTO contact : batch) {
+                    contact.setCid(0);
+                    contact.setCreatedAt(null);
+                    contact.setUpdatedAt(null);
+                }
+                LOGGER.log(Level.WARNING, "Batch insert failed, retrying " + batch.size() + " rows individually", e);
+            }
+
+            conn.setAutoCommit(true);
+            int inserted = 0;
+            for (ContactDTO contact : batch) {
+                try {
+                    insertRows(conn, List.of(contact));
+                    inserted++;
+                } catch (SQLException e) {
+                    LOGGER.log(Level.WARNING, "Skipping contact " + contact.getFirstName() + " " + contact.getLastName()
+                            + ": " + e.getMessage());
+                }
+            }
+            sample.complete(inserted);
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding contacts", e);
+            throw new RuntimeException("Failed to add contacts", e);
+        }
+    }
+
+    // Inserts the rows with one statement and copies the server-assigned cid, createdAt and
+    // updatedAt back into them. Rows go in through INSERT ... SELECT ... ORDER BY seq, for which
+    // SQL Server assigns identity values in ORDER BY order, so ordering the output by cid lines
+    // it up with the input. OUTPUT goes INTO a table variable, which unlike a bare OUTPUT
+    // clause is also allowed when the table has triggers.
+    private static void insertRows(Connection conn, List<ContactDTO> rows) throws SQLException {
+        StringBuilder query = new StringBuilder(256 + rows.size() * 24)
+                .append("SET NOCOUNT ON; ")
+                .append("DECLARE @inserted TABLE (cid INT PRIMARY KEY, createdAt DATETIME, updatedAt DATETIME); ")
+                .append("INSERT INTO Contacts (firstName, lastName, location, phone, email) ")
+                .append("OUTPUT INSERTED.cid, INSERTED.createdAt, INSERTED.updatedAt INTO @inserted ")
+                .append("SELECT firstName, lastName, location, phone, email FROM (VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            query.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ").append(i).append(')');
+        }
+        query.append(") AS v (firstName, lastName, location, phone, email, seq) ORDER BY seq; ")
+                .append("SELECT cid, createdAt, updatedAt FROM @inserted ORDER BY cid;");
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+            int index = 1;
+            for (ContactDTO contact : rows) {
+                pstmt.setString(index++, contact.getFirstName());
+                pstmt.setString(index++, contact.getLastName());
+                pstmt.setString(index++, contact.getLocation());
+                pstmt.setString(index++, contact.getPhone());
+                pstmt.setString(index++, contact.getEmail());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (ContactDTO contact : rows) {
+                    if (!rs.next()) {
+                        throw new SQLException("Insert returned fewer keys than rows");
+                    }
+                    contact.setCid(rs.getInt(1));
+                    Timestamp createdAt = rs.getTimestamp(2);
+                    contact.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+                    Timestamp updatedAt = rs.getTimestamp(3);
+                    contact.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+                }
+            }
+        }
     }
 
+    // Updates the contact and fills in its new updatedAt, so a cache holding it matches the table.
+    // OUTPUT goes INTO a table variable, as for inserts, since Contacts has a trigger.
     @Override
     public void updateContact(ContactDTO contact) {
-        String query = "UPDATE Contacts SET firstName = ?, lastName = ?, location = ?, phone = ?, email = ?, updatedAt = GETDATE() WHERE CID = ?";
-        try (Connection conn = connectionFactory.getConnection();
+        String query = "SET NOCOUNT ON; DECLARE @updated TABLE (updatedAt DATETIME); "
+                + "UPDATE Contacts SET firstName = ?, lastName = ?, location = ?, phone = ?, email = ?, updatedAt = GETDATE() "
+                + "OUTPUT INSERTED.updatedAt INTO @updated WHERE CID = ?; "
+                + "SELECT updatedAt FROM @updated;";
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.updateContact");
+             Connection conn = connectionFactory.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setString(1, contact.getFirstName());
@@ -62,7 +178,15 @@ public class ContactDAO implements ContactDAOInterface {
             pstmt.setString(4, contact.getPhone());
             pstmt.setString(5, contact.getEmail());
             pstmt.setInt(6, contact.getCid());
-            pstmt.executeUpdate();
+            int updated = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp updatedAt = rs.getTimestamp(1);
+                    contact.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+                    updated = 1;
+                }
+            }
+            sample.complete(updated);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error updating contact", e);
             throw new RuntimeException("Failed to update contact", e);
@@ -72,136 +196,367 @@ public class ContactDAO implements ContactDAOInterface {
     @Override
     public void deleteContact(int cid) {
         String query = "DELETE FROM Contacts WHERE CID = ?";
-        try (Connection conn = connectionFactory.getConnection();
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.deleteContact");
+             Connection conn = connectionFactory.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, cid);
-            pstmt.executeUpdate();
+            sample.complete(pstmt.executeUpdate());
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error deleting contact", e);
             throw new RuntimeException("Failed to delete contact", e);
         }
     }
 
-    @Override
-    public List<ContactDTO> getAllContacts() {
-        List<ContactDTO> contacts = new ArrayList<>();
-        String query = "SELECT * FROM Contacts";
+    // Delete many contacts with one statement, so one round-trip and one transaction.
+    // The ids travel as a single comma-separated parameter that the server splits, which
+    // also keeps large selections clear of SQL Server's 2100-parameter limit.
+    public int deleteContacts(Collection<Integer> cids) {
+        if (cids.isEmpty()) {
+            return 0;
+        }
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.deleteContacts");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_BY_IDS)) {
 
-        try (Connection conn = connectionFactory.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+            pstmt.setString(1, idList(cids));
+            int deleted = pstmt.executeUpdate();
+            sample.complete(deleted);
+            return deleted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error deleting contacts", e);
+            throw new RuntimeException("Failed to delete contacts", e);
+        }
+    }
 
-            while (rs.next()) {
-                ContactDTO contact = new ContactDTO();
-                contact.setCid(rs.getInt("CID"));
-                contact.setFirstName(rs.getString("firstName"));
-                contact.setLastName(rs.getString("lastName"));
-                contact.setLocation(rs.getString("location"));
-                contact.setPhone(rs.getString("phone"));
-                contact.setEmail(rs.getString("email"));
-                
-                // Handle date fields
-                Timestamp createdAt = rs.getTimestamp("createdAt");
-                if (createdAt != null) {
-                    contact.setCreatedAt(createdAt.toLocalDateTime());
+    // Apply duplicate merges in one transaction: survivors join the groups of the members they
+    // absorb, all removed members are deleted with one statement, then every survivor gets its
+    // merged fields in one batch. Deleting before updating keeps unique_contact from rejecting
+    // a survivor that takes over a removed member's email. Either every merge is applied or
+    // none is. The merges were computed from a snapshot, so every member must still have the
+    // updatedAt it had then: survivors are updated with AND updatedAt = ?, removed members report
+    // theirs through OUTPUT, and if any was changed or deleted meanwhile everything is rolled back.
+    // The survivors' new updatedAt is read back into their merged DTOs, so a cache holding them
+    // matches the table. Returns the number of contacts deleted.
+    public int mergeContacts(List<ContactMerge> merges) {
+        if (merges.isEmpty()) {
+            return 0;
+        }
+        List<Integer> removed = new ArrayList<>();
+        Map<Integer, LocalDateTime> removedUpdatedAt = new HashMap<>();
+        for (ContactMerge merge : merges) {
+            removed.addAll(merge.getRemovedCids());
+            for (ContactDTO member : merge.getMembers().subList(1, merge.getMembers().size())) {
+                removedUpdatedAt.put(member.getCid(), member.getUpdatedAt());
+            }
+        }
+        String inheritGroups = "INSERT INTO ContactGroupMembers (gid, cid) SELECT DISTINCT m.gid, ? FROM ContactGroupMembers m "
+                + "WHERE m.cid IN (SELECT CAST(value AS INT) FROM STRING_SPLIT(?, ',')) "
+                + "AND NOT EXISTS (SELECT 1 FROM ContactGroupMembers s WHERE s.gid = m.gid AND s.cid = ?)";
+        // OUTPUT needs INTO here, since Contacts has a trigger
+        String delete = "SET NOCOUNT ON; DECLARE @deleted TABLE (cid INT PRIMARY KEY, updatedAt DATETIME); "
+                + "DELETE FROM Contacts OUTPUT DELETED.cid, DELETED.updatedAt INTO @deleted "
+                + "WHERE cid IN (SELECT CAST(value AS INT) FROM STRING_SPLIT(?, ',')); "
+                + "SELECT cid, updatedAt FROM @deleted;";
+        // Cast to DATETIME, so the comparison is not made in DATETIME2 with its different rounding
+        String update = "UPDATE Contacts SET firstName = ?, lastName = ?, location = ?, phone = ?, email = ?, updatedAt = GETDATE() "
+                + "WHERE cid = ? AND (updatedAt = CAST(? AS DATETIME) OR (? IS NULL AND updatedAt IS NULL))";
+        String updated = "SELECT cid, updatedAt FROM Contacts WHERE cid IN (SELECT CAST(value AS INT) FROM STRING_SPLIT(?, ','))";
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.mergeContacts");
+             Connection conn = connectionFactory.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement groups = conn.prepareStatement(inheritGroups);
+                 PreparedStatement pdelete = conn.prepareStatement(delete);
+                 PreparedStatement pstmt = conn.prepareStatement(update);
+                 PreparedStatement select = conn.prepareStatement(updated)) {
+                int pending = 0;
+                for (ContactMerge merge : merges) {
+                    groups.setInt(1, merge.getSurvivorCid());
+                    groups.setString(2, idList(merge.getRemovedCids()));
+                    groups.setInt(3, merge.getSurvivorCid());
+                    groups.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        groups.executeBatch();
+                        pending = 0;
+                    }
                 }
-                
-                Timestamp updatedAt = rs.getTimestamp("updatedAt");
-                if (updatedAt != null) {
-                    contact.setUpdatedAt(updatedAt.toLocalDateTime());
+                if (pending > 0) {
+                    groups.executeBatch();
                 }
-                
-                contacts.add(contact);
+
+                pdelete.setString(1, idList(removed));
+                int deleted = 0;
+                int unchanged = 0;
+                try (ResultSet rs = pdelete.executeQuery()) {
+                    while (rs.next()) {
+                        deleted++;
+                        Timestamp updatedAt = rs.getTimestamp(2);
+                        if (Objects.equals(removedUpdatedAt.get(rs.getInt(1)), updatedAt != null ? updatedAt.toLocalDateTime() : null)) {
+                            unchanged++;
+                        }
+                    }
+                }
+
+                pending = 0;
+                for (ContactMerge merge : merges) {
+                    ContactDTO merged = merge.getMerged();
+                    Timestamp expected = merge.getMembers().get(0).getUpdatedAt() != null
+                            ? Timestamp.valueOf(merge.getMembers().get(0).getUpdatedAt()) : null;
+                    pstmt.setString(1, merged.getFirstName());
+                    pstmt.setString(2, merged.getLastName());
+                    pstmt.setString(3, merged.getLocation());
+                    pstmt.setString(4, merged.getPhone());
+                    pstmt.setString(5, merged.getEmail());
+                    pstmt.setInt(6, merged.getCid());
+                    pstmt.setTimestamp(7, expected);
+                    pstmt.setTimestamp(8, expected);
+                    pstmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        unchanged += sum(pstmt.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    unchanged += sum(pstmt.executeBatch());
+                }
+
+                int changed = removedUpdatedAt.size() + merges.size() - unchanged;
+                if (changed > 0) {
+                    conn.rollback();
+                    sample.complete();
+                    LOGGER.log(Level.WARNING, "Merge rolled back, {0} contacts changed since the merge was prepared", changed);
+                    throw new IllegalStateException(changed + " of the contacts to merge were changed or deleted "
+                            + "after the duplicates were found. Nothing was merged; please run Merge Contacts again.");
+                }
+
+                Map<Integer, ContactDTO> survivors = new HashMap<>(merges.size() * 2);
+                for (ContactMerge merge : merges) {
+                    survivors.put(merge.getSurvivorCid(), merge.getMerged());
+                }
+                select.setString(1, idList(survivors.keySet()));
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp updatedAt = rs.getTimestamp(2);
+                        survivors.get(rs.getInt(1)).setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+                    }
+                }
+                conn.commit();
+                sample.complete(deleted + merges.size());
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error merging contacts", e);
+            throw new RuntimeException("Failed to merge contacts", e);
+        }
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Comma-separated ids for STRING_SPLIT
+    static String idList(Collection<Integer> cids) {
+        StringBuilder ids = new StringBuilder(cids.size() * 8);
+        for (int cid : cids) {
+            if (ids.length() > 0) {
+                ids.append(',');
             }
+            ids.append(cid);
+        }
+        return ids.toString();
+    }
+
+    @Override
+    public List<ContactDTO> getAllContacts() {
+        return getAllContacts(ContactProjection.ALL);
+    }
+
+    // Get all contacts, reading only the projected columns
+    public List<ContactDTO> getAllContacts(ContactProjection projection) {
+        String query = "SELECT " + projection.selectList() + " FROM Contacts";
+        try {
+            return queryContacts("ContactDAO.getAllContacts", projection, query);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting contacts", e);
             throw new RuntimeException("Failed to get contacts", e);
         }
-        return contacts;
     }
     
     // Get contacts created within a date range
     public List<ContactDTO> getContactsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<ContactDTO> contacts = new ArrayList<>();
-        String query = "SELECT * FROM Contacts WHERE createdAt BETWEEN ? AND ? ORDER BY createdAt DESC";
-        
-        try (Connection conn = connectionFactory.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setTimestamp(1, Timestamp.valueOf(startDate));
-            pstmt.setTimestamp(2, Timestamp.valueOf(endDate));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    ContactDTO contact = new ContactDTO();
-                    contact.setCid(rs.getInt("CID"));
-                    contact.setFirstName(rs.getString("firstName"));
-                    contact.setLastName(rs.getString("lastName"));
-                    contact.setLocation(rs.getString("location"));
-                    contact.setPhone(rs.getString("phone"));
-                    contact.setEmail(rs.getString("email"));
-                    
-                    Timestamp createdAt = rs.getTimestamp("createdAt");
-                    if (createdAt != null) {
-                        contact.setCreatedAt(createdAt.toLocalDateTime());
-                    }
-                    
-                    Timestamp updatedAt = rs.getTimestamp("updatedAt");
-                    if (updatedAt != null) {
-                        contact.setUpdatedAt(updatedAt.toLocalDateTime());
-                    }
-                    
-                    contacts.add(contact);
-                }
-            }
+        return getContactsByDateRange(startDate, endDate, ContactProjection.ALL);
+    }
+
+    public List<ContactDTO> getContactsByDateRange(LocalDateTime startDate, LocalDateTime endDate, ContactProjection projection) {
+        String query = "SELECT " + projection.selectList() + " FROM Contacts WHERE createdAt BETWEEN ? AND ? ORDER BY createdAt DESC";
+        try {
+            return queryContacts("ContactDAO.getContactsByDateRange", projection, query,
+                    Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting contacts by date range", e);
             throw new RuntimeException("Failed to get contacts by date range", e);
         }
-        return contacts;
     }
     
     // Get recently modified contacts (within specified days)
     public List<ContactDTO> getRecentlyModifiedContacts(int days) {
+        return getRecentlyModifiedContacts(days, ContactProjection.ALL);
+    }
+
+    public List<ContactDTO> getRecentlyModifiedContacts(int days, ContactProjection projection) {
+        String query = "SELECT " + projection.selectList() + " FROM Contacts WHERE updatedAt >= DATEADD(day, -?, GETDATE()) ORDER BY updatedAt DESC";
+        try {
+            return queryContacts("ContactDAO.getRecentlyModifiedContacts", projection, query, days);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting recently modified contacts", e);
+            throw new RuntimeException("Failed to get recently modified contacts", e);
+        }
+    }
+
+    // Filter, sort and page on the server so only the requested rows cross the wire.
+    // Prefix filters become LIKE 'prefix%' and can seek on their index. Parameters for
+    // VARCHAR columns are cast to VARCHAR: the driver sends strings as NVARCHAR, and
+    // comparing that to a VARCHAR column would convert the column and scan.
+    public List<ContactDTO> findContacts(ContactQuery contactQuery) {
+        List<Object> params = new ArrayList<>();
+        ContactProjection projection = contactQuery.getProjection();
+        ContactColumn sortColumn = contactQuery.getSortColumn();
+        String direction = contactQuery.isAscending() ? "ASC" : "DESC";
+        StringBuilder query = new StringBuilder("SELECT ").append(projection.selectList()).append(" FROM Contacts")
+                .append(whereClause(contactQuery, params));
+        query.append(" ORDER BY ");
+        if (sortColumn != ContactColumn.CID) {
+            query.append(sortColumn.getColumnName()).append(' ').append(direction).append(", ");
+        }
+        query.append("cid ").append(direction);
+        if (contactQuery.getOffset() > 0 || contactQuery.getLimit() < Integer.MAX_VALUE) {
+            query.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+            params.add(contactQuery.getOffset());
+            params.add(contactQuery.getLimit());
+        }
+
+        try {
+            return queryContacts("ContactDAO.findContacts", projection, query.toString(), params.toArray());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding contacts", e);
+            throw new RuntimeException("Failed to find contacts", e);
+        }
+    }
+
+    // " WHERE ..." for the query's filters on Contacts, or "" without filters; adds the parameters
+    static String whereClause(ContactQuery contactQuery, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (contactQuery.getLocationPrefix() != null) {
+            conditions.add("location LIKE ? ESCAPE '\\'");
+            params.add(likePrefix(contactQuery.getLocationPrefix()));
+        }
+        if (contactQuery.getEmailDomainPrefix() != null) {
+            conditions.add("emailDomain LIKE CAST(? AS VARCHAR(255)) ESCAPE '\\'");
+            params.add(likePrefix(contactQuery.getEmailDomainPrefix()));
+        }
+        if (contactQuery.getPhonePrefix() != null) {
+            conditions.add("phone LIKE CAST(? AS VARCHAR(255)) ESCAPE '\\'");
+            params.add(likePrefix(contactQuery.getPhonePrefix()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    // LIKE pattern matching values that start with the given text taken literally
+    private static String likePrefix(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 2);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '\\' || c == '%' || c == '_' || c == '[') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    // Runs a contact query and maps every row through the projection it selected
+    private List<ContactDTO> queryContacts(String method, ContactProjection projection, String query,
+                                           Object... params) throws SQLException {
         List<ContactDTO> contacts = new ArrayList<>();
-        String query = "SELECT * FROM Contacts WHERE updatedAt >= DATEADD(day, -?, GETDATE()) ORDER BY updatedAt DESC";
-        
-        try (Connection conn = connectionFactory.getConnection();
+        try (DaoMetrics.Sample sample = METRICS.start(method);
+             Connection conn = connectionFactory.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            pstmt.setInt(1, days);
-            
+
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     ContactDTO contact = new ContactDTO();
-                    contact.setCid(rs.getInt("CID"));
-                    contact.setFirstName(rs.getString("firstName"));
-                    contact.setLastName(rs.getString("lastName"));
-                    contact.setLocation(rs.getString("location"));
-                    contact.setPhone(rs.getString("phone"));
-                    contact.setEmail(rs.getString("email"));
-                    
-                    Timestamp createdAt = rs.getTimestamp("createdAt");
-                    if (createdAt != null) {
-                        contact.setCreatedAt(createdAt.toLocalDateTime());
-                    }
-                    
-                    Timestamp updatedAt = rs.getTimestamp("updatedAt");
-                    if (updatedAt != null) {
-                        contact.setUpdatedAt(updatedAt.toLocalDateTime());
-                    }
-                    
+                    projection.read(rs, contact);
                     contacts.add(contact);
                 }
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error getting recently modified contacts", e);
-            throw new RuntimeException("Failed to get recently modified contacts", e);
+            sample.complete(contacts.size());
         }
         return contacts;
     }
     
+    // Visit every contact in cid order over a forward-only, read-only cursor, without
+    // materialising the table. One ContactDTO instance is reused for every row, so
+    // visitors must not keep it. Exceptions thrown by the visitor abort the read.
+    public long forEachContact(ContactRowVisitor visitor) throws Exception {
+        String query = "SELECT " + ContactProjection.ALL.selectList() + " FROM Contacts ORDER BY cid";
+        long rows = 0;
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.forEachContact");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ContactDTO contact = new ContactDTO();
+                while (rs.next()) {
+                    ContactProjection.ALL.read(rs, contact);
+                    visitor.visit(contact);
+                    rows++;
+                }
+            }
+            sample.complete(rows);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error streaming contacts", e);
+            throw new RuntimeException("Failed to stream contacts", e);
+        }
+        return rows;
+    }
+
+    // Get contacts inserted or updated at or after the given time (used to refresh caches)
+    public List<ContactDTO> getContactsModifiedSince(LocalDateTime since) {
+        String query = "SELECT " + ContactProjection.ALL.selectList() + " FROM Contacts WHERE updatedAt >= ?";
+        try {
+            return queryContacts("ContactDAO.getContactsModifiedSince", ContactProjection.ALL, query, Timestamp.valueOf(since));
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting modified contacts", e);
+            throw new RuntimeException("Failed to get modified contacts", e);
+        }
+    }
+
+    // Exact number of rows in the Contacts table
+    public long countContacts() {
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.countContacts");
+             Connection conn = connectionFactory.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT_BIG(*) FROM Contacts")) {
+            long count = rs.next() ? rs.getLong(1) : 0;
+            sample.complete();
+            return count;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error counting contacts", e);
+            throw new RuntimeException("Failed to count contacts", e);
+        }
+    }
+
     // Get contact statistics
     public ContactStatistics getContactStatistics() {
         String query = "SELECT " +
@@ -212,7 +567,8 @@ public class ContactDAO implements ContactDAOInterface {
                       "MAX(createdAt) as newest_contact " +
                       "FROM Contacts";
         
-        try (Connection conn = connectionFactory.getConnection();
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.getContactStatistics");
+             Connection conn = connectionFactory.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
             
@@ -232,12 +588,225 @@ public class ContactDAO implements ContactDAOInterface {
                     stats.setNewestContact(newest.toLocalDateTime());
                 }
                 
+                sample.complete(1);
                 return stats;
             }
+            sample.complete();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error getting contact statistics", e);
             throw new RuntimeException("Failed to get contact statistics", e);
         }
         return new ContactStatistics();
     }
+
+    // Get one page of contacts ordered by sortColumn (ties broken by cid), starting after the cursor.
+    // Pass a null cursor for the first page; the returned slice carries the cursor for the next one.
+    public ContactSlice getContactsPage(ContactColumn sortColumn, boolean ascending, String cursor, int pageSize) {
+        return getContactsPage(sortColumn, ascending, cursor, pageSize, ContactProjection.ALL);
+    }
+
+    // The sort column is always selected as well, since the next cursor is built from it
+    public ContactSlice getContactsPage(ContactColumn sortColumn, boolean ascending, String cursor, int pageSize,
+                                        ContactProjection projection) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        ContactCursor after = cursor != null ? ContactCursor.decode(cursor, sortColumn, ascending) : null;
+        String column = sortColumn.getColumnName();
+        String direction = ascending ? "ASC" : "DESC";
+
+        ContactProjection selected = projection.with(sortColumn);
+        StringBuilder query = new StringBuilder("SELECT TOP (?) ").append(selected.selectList()).append(" FROM Contacts");
+        List<Object> params = new ArrayList<>();
+        params.add(pageSize + 1);
+        if (after != null) {
+            query.append(" WHERE ").append(seekPredicate(after, params));
+        }
+        query.append(" ORDER BY ");
+        if (sortColumn != ContactColumn.CID) {
+            query.append(column).append(' ').append(direction).append(", ");
+        }
+        query.append("cid ").append(direction);
+
+        List<ContactDTO> contacts = new ArrayList<>(pageSize + 1);
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.getContactsPage");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            pstmt.setFetchSize(pageSize + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ContactDTO contact = new ContactDTO();
+                    selected.read(rs, contact);
+                    contacts.add(contact);
+                }
+            }
+            sample.complete(contacts.size());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting contacts page", e);
+            throw new RuntimeException("Failed to get contacts page", e);
+        }
+
+        return toSlice(contacts, sortColumn, ascending, pageSize);
+    }
+
+    // Get the page starting at a row offset (OFFSET/FETCH). Used for random access,
+    // e.g. when a scrollbar jumps; sequential readers should follow the cursor instead.
+    public ContactSlice getContactsPageAt(ContactColumn sortColumn, boolean ascending, long offset, int pageSize) {
+        return getContactsPageAt(sortColumn, ascending, offset, pageSize, ContactProjection.ALL);
+    }
+
+    public ContactSlice getContactsPageAt(ContactColumn sortColumn, boolean ascending, long offset, int pageSize,
+                                          ContactProjection projection) {
+        if (pageSize < 1 || offset < 0) {
+            throw new IllegalArgumentException("Invalid page request: offset=" + offset + ", pageSize=" + pageSize);
+        }
+        String direction = ascending ? "ASC" : "DESC";
+        ContactProjection selected = projection.with(sortColumn);
+        StringBuilder query = new StringBuilder("SELECT ").append(selected.selectList()).append(" FROM Contacts ORDER BY ");
+        if (sortColumn != ContactColumn.CID) {
+            query.append(sortColumn.getColumnName()).append(' ').append(direction).append(", ");
+        }
+        query.append("cid ").append(direction).append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+
+        List<ContactDTO> contacts = new ArrayList<>(pageSize + 1);
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.getContactsPageAt");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+
+            pstmt.setLong(1, offset);
+            pstmt.setInt(2, pageSize + 1);
+            pstmt.setFetchSize(pageSize + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ContactDTO contact = new ContactDTO();
+                    selected.read(rs, contact);
+                    contacts.add(contact);
+                }
+            }
+            sample.complete(contacts.size());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting contacts page", e);
+            throw new RuntimeException("Failed to get contacts page", e);
+        }
+
+        return toSlice(contacts, sortColumn, ascending, pageSize);
+    }
+
+    // cids of count rows starting at a row offset, in the same order as getContactsPageAt.
+    // Only cid is read, so the sort column's index covers the query whatever the range size.
+    public int[] getCidsAt(ContactColumn sortColumn, boolean ascending, long offset, int count) {
+        if (count < 0 || offset < 0) {
+            throw new IllegalArgumentException("Invalid row range: offset=" + offset + ", count=" + count);
+        }
+        String direction = ascending ? "ASC" : "DESC";
+        StringBuilder query = new StringBuilder("SELECT cid FROM Contacts ORDER BY ");
+        if (sortColumn != ContactColumn.CID) {
+            query.append(sortColumn.getColumnName()).append(' ').append(direction).append(", ");
+        }
+        query.append("cid ").append(direction).append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.getCidsAt");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+
+            pstmt.setLong(1, offset);
+            pstmt.setInt(2, count);
+            pstmt.setFetchSize(Math.min(count, STREAM_FETCH_SIZE));
+
+            int[] cids = new int[Math.min(count, 1024)];
+            int n = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (n == cids.length) {
+                        cids = Arrays.copyOf(cids, n * 2);
+                    }
+                    cids[n++] = rs.getInt(1);
+                }
+            }
+            sample.complete(n);
+            return Arrays.copyOf(cids, n);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting contact ids", e);
+            throw new RuntimeException("Failed to get contact ids", e);
+        }
+    }
+
+    // Cheap row-count estimate from partition metadata; falls back to COUNT_BIG
+    // when the login lacks VIEW DATABASE STATE.
+    public long estimateContactCount() {
+        String estimateQuery = "SELECT SUM(row_count) FROM sys.dm_db_partition_stats " +
+                               "WHERE object_id = OBJECT_ID('dbo.Contacts') AND index_id IN (0, 1)";
+        try (DaoMetrics.Sample sample = METRICS.start("ContactDAO.estimateContactCount");
+             Connection conn = connectionFactory.getConnection()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(estimateQuery)) {
+                if (rs.next()) {
+                    long estimate = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        sample.complete();
+                        return estimate;
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Partition stats unavailable, counting rows instead", e);
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT_BIG(*) FROM Contacts")) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                sample.complete();
+                return count;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error estimating contact count", e);
+            throw new RuntimeException("Failed to estimate contact count", e);
+        }
+    }
+
+    // Rows strictly after the cursor in (sort value, cid) order.
+    // SQL Server sorts NULLs first ascending and last descending.
+    private static String seekPredicate(ContactCursor after, List<Object> params) {
+        if (after.column == ContactColumn.CID) {
+            params.add(after.cid);
+            return after.ascending ? "cid > ?" : "cid < ?";
+        }
+        String column = after.column.getColumnName();
+        String cmp = after.ascending ? ">" : "<";
+        if (after.value == null) {
+            params.add(after.cid);
+            return after.ascending
+                    ? "((" + column + " IS NULL AND cid > ?) OR " + column + " IS NOT NULL)"
+                    : "(" + column + " IS NULL AND cid < ?)";
+        }
+        params.add(after.value);
+        params.add(after.value);
+        params.add(after.cid);
+        String value = after.column.parameter();
+        String predicate = "(" + column + " " + cmp + " " + value + " OR (" + column + " = " + value + " AND cid " + cmp + " ?)";
+        if (!after.ascending && after.column.isNullable()) {
+            predicate += " OR " + column + " IS NULL";
+        }
+        return predicate + ")";
+    }
+
+    // Queries fetch pageSize + 1 rows; the extra row only signals that another page exists
+    private static ContactSlice toSlice(List<ContactDTO> contacts, ContactColumn sortColumn, boolean ascending, int pageSize) {
+        String nextCursor = null;
+        if (contacts.size() > pageSize) {
+            contacts.remove(pageSize);
+            nextCursor = ContactCursor.after(contacts.get(pageSize - 1), sortColumn, ascending).encode();
+        }
+        return new ContactSlice(contacts, nextCursor);
+    }
+
+    static ContactDTO mapContact(ResultSet rs) throws SQLException {
+        ContactDTO contact = new ContactDTO();
+        ContactProjection.ALL.read(rs, contact);
+        return contact;
+    }
 }
\ No newline at end of file
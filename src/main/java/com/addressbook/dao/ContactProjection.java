@@ -0,0 +1,104 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactDTO;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * The Contacts columns a query selects.
+ *
+ * The select list is built once per projection and rows are read by column
+ * position, so mapping a row needs no column-name lookups and unselected
+ * columns cost neither wire bytes nor allocations. Fields of columns outside
+ * the projection are left null. cid is always selected.
+ */
+public final class ContactProjection {
+    public static final ContactProjection ALL = of(ContactColumn.values());
+    // What the contact table shows; no timestamps
+    public static final ContactProjection TABLE = of(ContactColumn.FIRST_NAME, ContactColumn.LAST_NAME,
+            ContactColumn.LOCATION, ContactColumn.PHONE, ContactColumn.EMAIL);
+    // Enough to list or identify a contact
+    public static final ContactProjection NAME_EMAIL = of(ContactColumn.FIRST_NAME, ContactColumn.LAST_NAME,
+            ContactColumn.EMAIL);
+
+    private final Set<ContactColumn> columns;
+    // 1-based ResultSet position by column ordinal, 0 when not selected
+    private final int[] positions = new int[ContactColumn.values().length];
+    private final String selectList;
+
+    private ContactProjection(Set<ContactColumn> columns) {
+        this.columns = columns;
+        StringJoiner select = new StringJoiner(", ");
+        int position = 0;
+        for (ContactColumn column : columns) {
+            positions[column.ordinal()] = ++position;
+            select.add(column.getColumnName());
+        }
+        this.selectList = select.toString();
+    }
+
+    public static ContactProjection of(ContactColumn... columns) {
+        EnumSet<ContactColumn> set = EnumSet.of(ContactColumn.CID);
+        set.addAll(Arrays.asList(columns));
+        return new ContactProjection(set);
+    }
+
+    /**
+     * Returns this projection plus the given column.
+     */
+    public ContactProjection with(ContactColumn column) {
+        if (contains(column)) {
+            return this;
+        }
+        EnumSet<ContactColumn> set = EnumSet.copyOf(columns);
+        set.add(column);
+        return new ContactProjection(set);
+    }
+
+    public boolean contains(ContactColumn column) {
+        return positions[column.ordinal()] != 0;
+    }
+
+    // Comma-separated column list for the SELECT clause; cid comes first
+    String selectList() {
+        return selectList;
+    }
+
+    // Overwrites every field, so one instance can be reused across rows
+    void read(ResultSet rs, ContactDTO contact) throws SQLException {
+        contact.setCid(rs.getInt(1));
+        contact.setFirstName(string(rs, ContactColumn.FIRST_NAME));
+        contact.setLastName(string(rs, ContactColumn.LAST_NAME));
+        contact.setLocation(string(rs, ContactColumn.LOCATION));
+        contact.setPhone(string(rs, ContactColumn.PHONE));
+        contact.setEmail(string(rs, ContactColumn.EMAIL));
+        contact.setCreatedAt(timestamp(rs, ContactColumn.CREATED_AT));
+        contact.setUpdatedAt(timestamp(rs, ContactColumn.UPDATED_AT));
+    }
+
+    private String string(ResultSet rs, ContactColumn column) throws SQLException {
+        int position = positions[column.ordinal()];
+        return position != 0 ? rs.getString(position) : null;
+    }
+
+    private LocalDateTime timestamp(ResultSet rs, ContactColumn column) throws SQLException {
+        int position = positions[column.ordinal()];
+        if (position == 0) {
+            return null;
+        }
+        Timestamp value = rs.getTimestamp(position);
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "ContactProjection" + columns;
+    }
+}
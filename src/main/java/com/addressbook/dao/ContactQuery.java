@@ -0,0 +1,97 @@
+package com.addressbook.dao;
+
+/**
+ * Filter, sort order and row window for {@link ContactDAO#findContacts}.
+ *
+ * Every filter is a case-insensitive prefix match, so it can seek on an index
+ * (idx_location, idx_emailDomain, idx_phone) instead of scanning the table.
+ * Unset filters are ignored; all set filters must match.
+ */
+public class ContactQuery {
+    private String locationPrefix;
+    private String emailDomainPrefix;
+    private String phonePrefix;
+    private ContactColumn sortColumn = ContactColumn.CID;
+    private boolean ascending = true;
+    private long offset;
+    private int limit = Integer.MAX_VALUE;
+    private ContactProjection projection = ContactProjection.ALL;
+
+    public ContactQuery locationStartsWith(String prefix) {
+        this.locationPrefix = blankToNull(prefix);
+        return this;
+    }
+
+    // Matches the part after '@'; a leading '@' in the prefix is ignored
+    public ContactQuery emailDomainStartsWith(String prefix) {
+        String domain = blankToNull(prefix);
+        this.emailDomainPrefix = domain != null && domain.startsWith("@") ? blankToNull(domain.substring(1)) : domain;
+        return this;
+    }
+
+    public ContactQuery phoneStartsWith(String prefix) {
+        this.phonePrefix = blankToNull(prefix);
+        return this;
+    }
+
+    // Ties are broken by cid in the same direction
+    public ContactQuery orderBy(ContactColumn column, boolean ascending) {
+        this.sortColumn = column;
+        this.ascending = ascending;
+        return this;
+    }
+
+    public ContactQuery page(long offset, int limit) {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Invalid page: offset=" + offset + ", limit=" + limit);
+        }
+        this.offset = offset;
+        this.limit = limit;
+        return this;
+    }
+
+    public ContactQuery select(ContactProjection projection) {
+        this.projection = projection;
+        return this;
+    }
+
+    public String getLocationPrefix() {
+        return locationPrefix;
+    }
+
+    public String getEmailDomainPrefix() {
+        return emailDomainPrefix;
+    }
+
+    public String getPhonePrefix() {
+        return phonePrefix;
+    }
+
+    public ContactColumn getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public ContactProjection getProjection() {
+        return projection;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,9 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactDTO;
+
+// Receives rows from a streaming read such as ContactDAO.forEachContact
+@FunctionalInterface
+public interface ContactRowVisitor {
+    void visit(ContactDTO contact) throws Exception;
+}
@@ -0,0 +1,156 @@
+package com.addressbook.dao;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide call statistics for the DAO layer: calls, errors, rows and a
+ * latency histogram per method, plus connection-acquire time.
+ *
+ * DAO methods open a {@link Sample} as the first try-with-resources resource
+ * and call {@link Sample#complete} once the work succeeded; a sample closed
+ * without completing counts as an error. The numbers are readable over JMX
+ * and, when DAO_METRICS_DUMP_SECONDS is set, are logged as a table at that
+ * interval and at shutdown.
+ */
+public final class DaoMetrics implements DaoMetricsMXBean {
+    private static final Logger LOGGER = Logger.getLogger(DaoMetrics.class.getName());
+    private static final int DUMP_SECONDS = ConnectionFactory.envInt("DAO_METRICS_DUMP_SECONDS", 0);
+    private static final DaoMetrics INSTANCE = new DaoMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("com.addressbook:type=DaoMetrics"));
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Could not register DAO metrics with JMX", e);
+        }
+        if (DUMP_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "dao-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> LOGGER.info(INSTANCE.dump()), DUMP_SECONDS, DUMP_SECONDS, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> LOGGER.info(INSTANCE.dump()), "dao-metrics-final-dump"));
+        }
+    }
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    private DaoMetrics() {
+    }
+
+    public static DaoMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts timing one call of the named method, e.g. "ContactDAO.getAllContacts".
+     */
+    public Sample start(String method) {
+        return new Sample(methods.computeIfAbsent(method, MethodMetrics::new));
+    }
+
+    @Override
+    public List<MethodStats> getMethods() {
+        List<MethodStats> stats = new ArrayList<>();
+        for (MethodMetrics metrics : methods.values()) {
+            stats.add(metrics.snapshot());
+        }
+        stats.sort(Comparator.comparing(MethodStats::getName));
+        return stats;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder("DAO metrics (latency in us)\n");
+        out.append(String.format("%-42s %9s %7s %11s %9s %9s %9s %9s %9s%n",
+                "method", "calls", "errors", "rows", "mean", "p50", "p99", "p99.9", "max"));
+        for (MethodStats s : getMethods()) {
+            out.append(String.format("%-42s %9d %7d %11d %9.0f %9.0f %9.0f %9.0f %9.0f%n",
+                    s.getName(), s.getCalls(), s.getErrors(), s.getRows(), s.getMeanMicros(),
+                    s.getP50Micros(), s.getP99Micros(), s.getP999Micros(), s.getMaxMicros()));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        methods.values().forEach(MethodMetrics::reset);
+    }
+
+    /**
+     * One timed call. Close it (try-with-resources) when the call ends.
+     */
+    public static final class Sample implements AutoCloseable {
+        private final MethodMetrics metrics;
+        private final long startNanos = System.nanoTime();
+        private boolean completed;
+        private long rows;
+
+        private Sample(MethodMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        public void complete() {
+            completed = true;
+        }
+
+        // Marks the call successful; rows is the number of rows read or written
+        public void complete(long rows) {
+            this.rows = rows;
+            completed = true;
+        }
+
+        @Override
+        public void close() {
+            metrics.record(System.nanoTime() - startNanos, rows, !completed);
+        }
+    }
+
+    private static final class MethodMetrics {
+        final String name;
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        MethodMetrics(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long rowCount, boolean failed) {
+            latency.record(nanos);
+            rows.add(rowCount);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        MethodStats snapshot() {
+            return new MethodStats(name, latency.count(), errors.sum(), rows.sum(),
+                    latency.mean() / 1000.0,
+                    latency.percentile(50) / 1000.0,
+                    latency.percentile(99) / 1000.0,
+                    latency.percentile(99.9) / 1000.0,
+                    latency.max() / 1000.0);
+        }
+
+        void reset() {
+            latency.reset();
+            errors.reset();
+            rows.reset();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.addressbook.dao;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link DaoMetrics}, registered as com.addressbook:type=DaoMetrics.
+ */
+public interface DaoMetricsMXBean {
+    List<MethodStats> getMethods();
+
+    String dump();
+
+    void reset();
+}
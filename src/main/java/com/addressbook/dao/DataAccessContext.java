@@ -0,0 +1,113 @@
+package com.addressbook.dao;
+
+import com.addressbook.search.ContactGroupIndex;
+import com.addressbook.search.ContactSearchIndex;
+import com.addressbook.search.DuplicateIndex;
+import com.addressbook.search.FuzzyNameIndex;
+import com.addressbook.search.PhoneticNameIndex;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared data-access layer for one application session.
+ *
+ * Owns the single ConnectionFactory (and therefore the connection pool) and
+ * the DAOs built on top of it. Create it once and pass it to every service
+ * instead of letting each service construct its own DAO; the contact DAO is
+ * backed by a shared in-memory cache, so one context means one cache.
+ */
+public class DataAccessContext {
+    private static final Logger LOGGER = Logger.getLogger(DataAccessContext.class.getName());
+
+    private final ConnectionFactory connectionFactory;
+    private final CachedContactDAO contactDAO;
+    private final GroupDAO groupDAO;
+    private final BackupDAO backupDAO;
+    private final ContactSearchIndex searchIndex;
+    private final DuplicateIndex duplicateIndex;
+    private final FuzzyNameIndex fuzzyIndex;
+    private final PhoneticNameIndex phoneticIndex;
+    private final ContactGroupIndex groupIndex;
+    private volatile CompletableFuture<Void> warmUp;
+
+    public DataAccessContext() {
+        this.connectionFactory = new ConnectionFactory();
+        this.contactDAO = new CachedContactDAO(connectionFactory);
+        this.groupDAO = new GroupDAO(connectionFactory);
+        this.backupDAO = new BackupDAO(connectionFactory);
+        this.searchIndex = new ContactSearchIndex(contactDAO);
+        this.duplicateIndex = new DuplicateIndex(contactDAO);
+        this.fuzzyIndex = new FuzzyNameIndex(contactDAO);
+        this.phoneticIndex = new PhoneticNameIndex(contactDAO);
+        this.groupIndex = new ContactGroupIndex(groupDAO, contactDAO);
+    }
+
+    /**
+     * Opens the pool's initial connections on a background thread so the
+     * caller (usually the EDT) never waits for the login handshake.
+     * Subsequent calls return the same future.
+     */
+    public synchronized CompletableFuture<Void> warmUpAsync() {
+        if (warmUp == null) {
+            warmUp = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    connectionFactory.getPool().fill();
+                    warmUp.complete(null);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Connection warm-up failed", e);
+                    warmUp.completeExceptionally(e);
+                }
+            }, "data-access-warmup");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return warmUp;
+    }
+
+    public ConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public ContactDAO getContactDAO() {
+        return contactDAO;
+    }
+
+    public GroupDAO getGroupDAO() {
+        return groupDAO;
+    }
+
+    public BackupDAO getBackupDAO() {
+        return backupDAO;
+    }
+
+    public ContactSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public DuplicateIndex getDuplicateIndex() {
+        return duplicateIndex;
+    }
+
+    public FuzzyNameIndex getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    public PhoneticNameIndex getPhoneticIndex() {
+        return phoneticIndex;
+    }
+
+    public ContactGroupIndex getGroupIndex() {
+        return groupIndex;
+    }
+
+    /**
+     * Reloads the contact cache, and with it every index built on it, after
+     * the tables were changed behind the DAOs' back, e.g. by a restore.
+     */
+    public void reloadCaches() {
+        contactDAO.reloadAll();
+    }
+}
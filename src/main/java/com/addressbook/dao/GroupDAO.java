@@ -0,0 +1,161 @@
+package com.addressbook.dao;
+
+import com.addressbook.model.ContactGroup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Contact groups and their memberships (ContactGroups, ContactGroupMembers).
+ *
+ * Memberships are written in bulk: every contact matching a ContactQuery is
+ * added with one INSERT ... SELECT on the server.
+ * Deleting a group or a contact removes its memberships through the foreign
+ * keys' ON DELETE CASCADE.
+ */
+public class GroupDAO {
+    private static final Logger LOGGER = Logger.getLogger(GroupDAO.class.getName());
+    private static final DaoMetrics METRICS = DaoMetrics.get();
+    private static final int STREAM_FETCH_SIZE = 5000;
+
+    private final ConnectionFactory connectionFactory;
+
+    public GroupDAO(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Receives one (group, contact) membership row.
+     */
+    @FunctionalInterface
+    public interface MembershipVisitor {
+        void visit(int gid, int cid);
+    }
+
+    public List<ContactGroup> getGroups() {
+        String query = "SELECT gid, name FROM ContactGroups ORDER BY name";
+        List<ContactGroup> groups = new ArrayList<>();
+        try (DaoMetrics.Sample sample = METRICS.start("GroupDAO.getGroups");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                groups.add(new ContactGroup(rs.getInt(1), rs.getString(2)));
+            }
+            sample.complete(groups.size());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting contact groups", e);
+            throw new RuntimeException("Failed to get contact groups", e);
+        }
+        return groups;
+    }
+
+    // Stream every membership ordered by gid, then cid. Returns the number of rows.
+    public long forEachMembership(MembershipVisitor visitor) {
+        String query = "SELECT gid, cid FROM ContactGroupMembers ORDER BY gid, cid";
+        long rows = 0;
+        try (DaoMetrics.Sample sample = METRICS.start("GroupDAO.forEachMembership");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), rs.getInt(2));
+                    rows++;
+                }
+            }
+            sample.complete(rows);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading group memberships", e);
+            throw new RuntimeException("Failed to read group memberships", e);
+        }
+        return rows;
+    }
+
+    public ContactGroup createGroup(String name) {
+        String query = "INSERT INTO ContactGroups (name) OUTPUT INSERTED.gid VALUES (?)";
+        try (DaoMetrics.Sample sample = METRICS.start("GroupDAO.createGroup");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                sample.complete(1);
+                return new ContactGroup(rs.getInt(1), name);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error creating contact group", e);
+            throw new RuntimeException("Failed to create contact group", e);
+        }
+    }
+
+    // Deletes the group; its memberships go with it
+    public void deleteGroup(int gid) {
+        String query = "DELETE FROM ContactGroups WHERE gid = ?";
+        try (DaoMetrics.Sample sample = METRICS.start("GroupDAO.deleteGroup");
+             Connection conn = connectionFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, gid);
+            sample.complete(pstmt.executeUpdate());
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error deleting contact group", e);
+            throw new RuntimeException("Failed to delete contact group", e);
+        }
+    }
+
+    // Add every contact matching the query's filters with one INSERT ... SELECT on the server;
+    // sort order and paging are ignored. Returns the cids that were added, ascending.
+    public int[] addMembers(int gid, ContactQuery contactQuery) {
+        List<Object> params = new ArrayList<>();
+        params.add(gid);
+        String where = ContactDAO.whereClause(contactQuery, params);
+        params.add(gid);
+        String select = "SELECT ?, cid FROM Contacts" + (where.isEmpty() ? " WHERE " : where + " AND ")
+                + "NOT EXISTS (SELECT 1 FROM ContactGroupMembers m WHERE m.gid = ? AND m.cid = Contacts.cid)";
+        try (DaoMetrics.Sample sample = METRICS.start("GroupDAO.addMembersByQuery");
+             Connection conn = connectionFactory.getConnection()) {
+            int[] added = insertMembers(conn, select, params.toArray());
+            sample.complete(added.length);
+            return added;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding group members", e);
+            throw new RuntimeException("Failed to add group members", e);
+        }
+    }
+
+    // Runs INSERT INTO ContactGroupMembers with the given SELECT of (gid, cid) and returns the
+    // cids it inserted, ascending. OUTPUT goes INTO a table variable, as for contact inserts.
+    private static int[] insertMembers(Connection conn, String select, Object... params) throws SQLException {
+        String query = "SET NOCOUNT ON; "
+                + "DECLARE @added TABLE (cid INT PRIMARY KEY); "
+                + "INSERT INTO ContactGroupMembers (gid, cid) OUTPUT INSERTED.cid INTO @added " + select + "; "
+                + "SELECT cid FROM @added ORDER BY cid;";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            int[] cids = new int[64];
+            int count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (count == cids.length) {
+                        cids = Arrays.copyOf(cids, count * 2);
+                    }
+                    cids[count++] = rs.getInt(1);
+                }
+            }
+            return Arrays.copyOf(cids, count);
+        }
+    }
+}
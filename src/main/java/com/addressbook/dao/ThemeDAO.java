@@ -9,6 +9,7 @@ import java.util.logging.Logger;
 
 public class ThemeDAO {
     private static final Logger LOGGER = Logger.getLogger(ThemeDAO.class.getName());
+    private static final DaoMetrics METRICS = DaoMetrics.get();
     private final ConnectionFactory connectionFactory;
 
     public ThemeDAO() {
@@ -17,15 +18,18 @@ public class ThemeDAO {
 
     public String getSavedTheme(String username) {
         String query = "SELECT TOP 1 theme FROM UserSettings WHERE username = ?";
-        try (Connection conn = connectionFactory.getConnection();
+        try (DaoMetrics.Sample sample = METRICS.start("ThemeDAO.getSavedTheme");
+             Connection conn = connectionFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
+                sample.complete(1);
                 return rs.getString("theme");
             }
+            sample.complete();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving saved theme", e);
         }
@@ -39,12 +43,13 @@ public class ThemeDAO {
                       "WHEN MATCHED THEN UPDATE SET theme = source.theme " +
                       "WHEN NOT MATCHED THEN INSERT (username, theme) VALUES (source.username, source.theme);";
         
-        try (Connection conn = connectionFactory.getConnection();
+        try (DaoMetrics.Sample sample = METRICS.start("ThemeDAO.saveTheme");
+             Connection conn = connectionFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, username);
             stmt.setString(2, theme);
-            stmt.executeUpdate();
+            sample.complete(stmt.executeUpdate());
             
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving theme", e);
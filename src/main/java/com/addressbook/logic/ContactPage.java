@@ -1,6 +1,8 @@
 package com.addressbook.logic;
 
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.model.ContactDTO;
+import com.addressbook.utils.TaskRunner;
 import javax.swing.*;
 import java.awt.*;
 import java.util.List;
@@ -24,8 +26,8 @@ public class ContactPage extends JPanel {
     // State
     private int selectedCid = -1;
     
-    public ContactPage() {
-        this.contactService = new ContactService();
+    public ContactPage(DataAccessContext dataAccess) {
+        this.contactService = new ContactService(dataAccess);
         initializePanel();
         loadContacts();
     }
@@ -46,7 +48,7 @@ public class ContactPage extends JPanel {
         mainContent.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
         
         // Create table panel (left side)
-        tablePanel = new ContactTablePanel(new ContactTablePanel.TableActionListener() {
+        tablePanel = new ContactTablePanel(contactService, new ContactTablePanel.TableActionListener() {
             @Override
             public void onContactSelected(int cid, String firstName, String lastName, 
                                        String location, String phone, String email) {
@@ -103,9 +105,10 @@ public class ContactPage extends JPanel {
         add(mainContent, BorderLayout.CENTER);
     }
     
-    private void loadContacts() {
-        List<ContactDTO> contacts = contactService.getAllContacts();
-        tablePanel.loadContacts(contacts);
+    // Rows are paged in off the EDT, so the page paints before SQL Server answers.
+    // Also used by Dashboard after changes made outside this page, e.g. a merge.
+    public void loadContacts() {
+        tablePanel.reload();
     }
     
     private void clearFields() {
@@ -148,8 +151,7 @@ public class ContactPage extends JPanel {
             formPanel.getEmail()
         );
         
-        List<ContactDTO> existingContacts = contactService.getAllContacts();
-        return contactService.isDuplicateContact(newContact, existingContacts);
+        return contactService.isDuplicateContact(newContact);
     }
     
     private void handleEditContact() {
@@ -172,7 +174,7 @@ public class ContactPage extends JPanel {
         contact.setCid(selectedCid);
         
         contactService.updateContact(contact);
-        loadContacts();
+        tablePanel.updateContact(contact);
         clearFields();
         contactService.showSuccessMessage("Contact updated successfully!", this);
     }
@@ -190,18 +192,26 @@ public class ContactPage extends JPanel {
     
     private void handleDeleteContact() {
         int[] selectedRows = tablePanel.getSelectedRows();
-        if (selectedRows.length > 0) {
-            if (contactService.confirmDelete(this)) {
-                for (int rowIndex : selectedRows) {
-                    int cid = tablePanel.getSelectedCid();
-                    contactService.deleteContact(cid);
+        if (selectedRows.length == 0) {
+            contactService.showErrorMessage("Please select at least one contact to delete.", this);
+            return;
+        }
+        // Rows not loaded yet are resolved to cids off the EDT, in one query per run of rows
+        ContactTableModel.RowSelection selection = tablePanel.getSelection();
+        if (contactService.confirmDelete(this)) {
+            TaskRunner.run(this, "Delete Contacts", context -> {
+                List<Integer> cids = selection.resolve();
+                context.checkCancelled();
+                return contactService.deleteContacts(cids);
+            }, deleted -> {
+                if (selection.isComplete()) {
+                    tablePanel.removeContacts(selection.resolve());
+                } else {
+                    tablePanel.reload();
                 }
-                loadContacts();
                 clearFields();
-                contactService.showSuccessMessage("Selected contacts deleted successfully!", this);
-            }
-        } else {
-            contactService.showErrorMessage("Please select at least one contact to delete.", this);
+                contactService.showSuccessMessage(deleted + " contact(s) deleted successfully!", this);
+            });
         }
     }
 }
\ No newline at end of file
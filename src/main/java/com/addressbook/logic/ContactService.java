@@ -1,8 +1,19 @@
 package com.addressbook.logic;
 
+import com.addressbook.dao.ContactColumn;
 import com.addressbook.dao.ContactDAO;
+import com.addressbook.dao.ContactProjection;
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactSlice;
+import com.addressbook.search.ContactSearchIndex;
+import com.addressbook.search.DuplicateIndex;
+import com.addressbook.search.FuzzyNameIndex;
+import com.addressbook.search.PhoneticNameIndex;
+import com.addressbook.search.SearchMode;
+import com.addressbook.search.SearchResult;
 import javax.swing.*;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,9 +21,17 @@ import java.util.List;
  */
 public class ContactService {
     private final ContactDAO contactDAO;
+    private final ContactSearchIndex searchIndex;
+    private final DuplicateIndex duplicateIndex;
+    private final FuzzyNameIndex fuzzyIndex;
+    private final PhoneticNameIndex phoneticIndex;
     
-    public ContactService() {
-        this.contactDAO = new ContactDAO();
+    public ContactService(DataAccessContext dataAccess) {
+        this.contactDAO = dataAccess.getContactDAO();
+        this.searchIndex = dataAccess.getSearchIndex();
+        this.duplicateIndex = dataAccess.getDuplicateIndex();
+        this.fuzzyIndex = dataAccess.getFuzzyIndex();
+        this.phoneticIndex = dataAccess.getPhoneticIndex();
     }
     
     /**
@@ -22,6 +41,44 @@ public class ContactService {
         return contactDAO.getAllContacts();
     }
     
+    /**
+     * Finds contacts matching the query in the given mode. For substring
+     * searches, passing the previous result lets a query that extends it
+     * re-check only its matches.
+     */
+    public SearchResult searchContacts(String query, SearchMode mode, SearchResult previous) {
+        return switch (mode) {
+            case CONTAINS -> searchIndex.search(query, previous);
+            case FUZZY -> fuzzyIndex.search(query);
+            case SOUNDS_LIKE -> phoneticIndex.search(query);
+        };
+    }
+    
+    /**
+     * Loads one block of table rows, continuing from the cursor when one is given.
+     * Timestamps are not shown in the table and are not read.
+     */
+    public ContactSlice loadPage(ContactColumn sortColumn, boolean ascending, String cursor, long offset, int pageSize) {
+        if (cursor != null) {
+            return contactDAO.getContactsPage(sortColumn, ascending, cursor, pageSize, ContactProjection.TABLE);
+        }
+        return contactDAO.getContactsPageAt(sortColumn, ascending, offset, pageSize, ContactProjection.TABLE);
+    }
+    
+    /**
+     * Reads only the cids of a range of table rows, in the same order as loadPage
+     */
+    public int[] loadCids(ContactColumn sortColumn, boolean ascending, long offset, int count) {
+        return contactDAO.getCidsAt(sortColumn, ascending, offset, count);
+    }
+    
+    /**
+     * Estimates the number of contacts without loading them
+     */
+    public long estimateContactCount() {
+        return contactDAO.estimateContactCount();
+    }
+    
     /**
      * Adds a new contact
      */
@@ -44,15 +101,17 @@ public class ContactService {
     }
     
     /**
-     * Checks if a contact is a duplicate
+     * Deletes all the given contacts in one statement; returns the number deleted
      */
-    public boolean isDuplicateContact(ContactDTO newContact, List<ContactDTO> existingContacts) {
-        for (ContactDTO existing : existingContacts) {
-            if (isSameContact(newContact, existing)) {
-                return true;
-            }
-        }
-        return false;
+    public int deleteContacts(Collection<Integer> cids) {
+        return contactDAO.deleteContacts(cids);
+    }
+    
+    /**
+     * Checks if another contact already has the same first name, last name and email
+     */
+    public boolean isDuplicateContact(ContactDTO newContact) {
+        return duplicateIndex.isDuplicate(newContact);
     }
     
     /**
@@ -94,15 +153,5 @@ public class ContactService {
         );
         return confirm == JOptionPane.YES_OPTION;
     }
-    
-    /**
-     * Compares two contacts to check if they are the same
-     */
-    private boolean isSameContact(ContactDTO contact1, ContactDTO contact2) {
-        return contact1.getFirstName().trim().equals(contact2.getFirstName().trim()) &&
-               contact1.getLastName().trim().equals(contact2.getLastName().trim()) &&
-               contact1.getLocation().trim().equals(contact2.getLocation().trim()) &&
-               contact1.getPhone().trim().equals(contact2.getPhone().trim()) &&
-               contact1.getEmail().trim().equals(contact2.getEmail().trim());
-    }
+
 } 
\ No newline at end of file
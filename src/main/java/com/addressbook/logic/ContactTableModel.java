@@ -0,0 +1,477 @@
+package com.addressbook.logic;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactSlice;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Table model that pages contacts in on demand.
+ *
+ * In paged mode only the blocks the JTable actually asks for are fetched, on a
+ * background thread, and at most MAX_CACHED_PAGES blocks are kept in an LRU
+ * window, so memory follows the viewport rather than the table size. A fixed
+ * list (e.g. search results) can be shown instead with {@link #showContacts}.
+ * Single contacts can be patched or removed in place through a cid-to-row
+ * index, with row-level events, so an edit never reloads the table. The cids
+ * of a selection larger than the cached window are read directly, see
+ * {@link #selectRows}.
+ * All state is touched on the EDT only.
+ */
+public class ContactTableModel extends AbstractTableModel {
+    private static final Logger LOGGER = Logger.getLogger(ContactTableModel.class.getName());
+
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 50;
+    // Above this many separate row runs a fixed list is compacted once instead
+    private static final int MAX_DELETE_EVENTS = 32;
+    private static final String LOADING = "…";
+    private static final String[] COLUMN_NAMES = {"CID", "First Name", "Last Name", "Location", "Phone", "Email"};
+
+    /**
+     * Loads one block of rows. The cursor continues from the previous block when
+     * it is still cached; otherwise the block is addressed by row offset.
+     */
+    public interface PageLoader {
+        ContactSlice loadPage(String cursor, long offset, int pageSize);
+    }
+
+    /**
+     * Reads only the cids of count rows from a row offset, in the page loader's order.
+     */
+    public interface CidLoader {
+        int[] loadCids(long offset, int count);
+    }
+
+    /**
+     * The cids of a set of rows, taken on the EDT. Rows that were not held are
+     * kept as runs of adjacent rows and read by {@link #resolve()}, off the EDT,
+     * without going through the block cache.
+     */
+    public static final class RowSelection {
+        private final List<Integer> heldCids;
+        // {first row, row count}
+        private final List<long[]> missingRuns;
+        private final CidLoader cidLoader;
+
+        private RowSelection(List<Integer> heldCids, List<long[]> missingRuns, CidLoader cidLoader) {
+            this.heldCids = heldCids;
+            this.missingRuns = missingRuns;
+            this.cidLoader = cidLoader;
+        }
+
+        // True when every row was held, so resolve() does not query
+        public boolean isComplete() {
+            return missingRuns.isEmpty();
+        }
+
+        /**
+         * Returns the cids of all rows of the selection, reading those that were
+         * not held with one cid-only query per run.
+         */
+        public List<Integer> resolve() {
+            if (missingRuns.isEmpty()) {
+                return heldCids;
+            }
+            Set<Integer> cids = new LinkedHashSet<>(heldCids);
+            for (long[] run : missingRuns) {
+                for (int cid : cidLoader.loadCids(run[0], (int) run[1])) {
+                    cids.add(cid);
+                }
+            }
+            return new ArrayList<>(cids);
+        }
+    }
+
+    private static final class Page {
+        final List<ContactDTO> rows;
+        final String nextCursor;
+
+        Page(List<ContactDTO> rows, String nextCursor) {
+            this.rows = rows;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "contact-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Integer, Page> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> pendingPages = new HashSet<>();
+
+    private PageLoader pageLoader;
+    private CidLoader cidLoader;
+    private List<ContactDTO> fixedRows;
+    private int rowCount;
+    private int generation;
+    // Bumped whenever rows shift, so blocks requested before the shift are dropped
+    private int layoutVersion;
+    // cid -> model row for the rows currently held; rebuilt lazily after rows shift
+    private final Map<Integer, Integer> rowByCid = new HashMap<>();
+    private boolean rowIndexStale;
+    // Last block the table asked for; queued loads far away from it are skipped
+    private volatile int lastRequestedPage;
+
+    @Override
+    public int getRowCount() {
+        return fixedRows != null ? fixedRows.size() : rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        ContactDTO contact = getContactAt(rowIndex);
+        if (contact == null) {
+            return columnIndex == 0 ? null : LOADING;
+        }
+        return switch (columnIndex) {
+            case 0 -> contact.getCid();
+            case 1 -> contact.getFirstName();
+            case 2 -> contact.getLastName();
+            case 3 -> contact.getLocation();
+            case 4 -> contact.getPhone();
+            case 5 -> contact.getEmail();
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the contact at a model row, or null while its block is still loading
+     * (a load is scheduled in that case).
+     */
+    public ContactDTO getContactAt(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= getRowCount()) {
+            return null;
+        }
+        if (fixedRows != null) {
+            return fixedRows.get(rowIndex);
+        }
+        int pageIndex = rowIndex / PAGE_SIZE;
+        lastRequestedPage = pageIndex;
+        Page page = pages.get(pageIndex);
+        int offset = rowIndex % PAGE_SIZE;
+        if (page != null && offset < page.rows.size()) {
+            return page.rows.get(offset);
+        }
+        requestPage(pageIndex);
+        return null;
+    }
+
+    /**
+     * Switches to paged mode and starts over with a fresh row count.
+     */
+    public void showPaged(PageLoader pageLoader, CidLoader cidLoader, LongSupplier rowCountEstimate) {
+        this.pageLoader = pageLoader;
+        this.cidLoader = cidLoader;
+        this.fixedRows = null;
+        clearPages();
+        rowCount = 0;
+        fireTableDataChanged();
+
+        int expected = generation;
+        loader.execute(() -> {
+            try {
+                long estimate = rowCountEstimate.getAsLong();
+                SwingUtilities.invokeLater(() -> {
+                    if (expected == generation && fixedRows == null) {
+                        rowCount = (int) Math.min(Integer.MAX_VALUE, estimate);
+                        fireTableDataChanged();
+                    }
+                });
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Error counting contacts", e);
+            }
+        });
+    }
+
+    /**
+     * Shows a fixed list of contacts instead of paging from the database.
+     */
+    public void showContacts(List<ContactDTO> contacts) {
+        clearPages();
+        fixedRows = contacts;
+        rowIndexStale = true;
+        fireTableDataChanged();
+    }
+
+    public boolean isPaged() {
+        return fixedRows == null;
+    }
+
+    /**
+     * Takes the cids of the given model rows. Held rows are read from memory;
+     * the others are left to {@link RowSelection#resolve()}, so a selection is
+     * never refused because its blocks were not loaded or have been evicted.
+     */
+    public RowSelection selectRows(int[] rows) {
+        int[] sorted = Arrays.stream(rows).distinct().sorted().toArray();
+        List<Integer> held = new ArrayList<>(sorted.length);
+        List<long[]> missing = new ArrayList<>();
+        for (int row : sorted) {
+            ContactDTO contact = peekContact(row);
+            if (contact != null) {
+                held.add(contact.getCid());
+            } else if (fixedRows == null && row >= 0 && row < rowCount) {
+                long[] last = missing.isEmpty() ? null : missing.get(missing.size() - 1);
+                if (last != null && last[0] + last[1] == row) {
+                    last[1]++;
+                } else {
+                    missing.add(new long[]{row, 1});
+                }
+            }
+        }
+        return new RowSelection(held, missing, cidLoader);
+    }
+
+    /**
+     * Appends a newly added contact at the end of the table.
+     */
+    public void appendContact(ContactDTO contact) {
+        if (fixedRows != null) {
+            fixedRows.add(contact);
+        } else {
+            Page last = pages.get(rowCount / PAGE_SIZE);
+            if (last != null && last.rows.size() == rowCount % PAGE_SIZE) {
+                last.rows.add(contact);
+            }
+            rowCount++;
+        }
+        int row = getRowCount() - 1;
+        if (!rowIndexStale) {
+            rowByCid.put(contact.getCid(), row);
+        }
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Replaces the row showing the same contact and repaints only that row.
+     * The row keeps its position until the next reload. Returns false when the
+     * contact is not held, e.g. its block was never loaded or has been evicted.
+     */
+    public boolean updateContact(ContactDTO contact) {
+        int row = findRow(contact.getCid());
+        if (row < 0) {
+            return false;
+        }
+        if (fixedRows != null) {
+            fixedRows.set(row, contact);
+        } else {
+            pages.get(row / PAGE_SIZE).rows.set(row % PAGE_SIZE, contact);
+        }
+        fireTableRowsUpdated(row, row);
+        return true;
+    }
+
+    /**
+     * Removes the rows of the given contacts, firing a delete event per run of
+     * adjacent rows. Returns the number of rows removed.
+     */
+    public int removeContacts(Collection<Integer> cids) {
+        int[] rows = cids.stream().mapToInt(this::findRow).filter(row -> row >= 0).distinct().sorted().toArray();
+        if (rows.length == 0) {
+            return 0;
+        }
+        // [first, last] pairs of adjacent rows
+        List<int[]> runs = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            int first = rows[i];
+            while (i + 1 < rows.length && rows[i + 1] == rows[i] + 1) {
+                i++;
+            }
+            runs.add(new int[]{first, rows[i]});
+        }
+
+        rowIndexStale = true;
+        if (fixedRows != null && runs.size() > MAX_DELETE_EVENTS) {
+            Set<Integer> removed = new HashSet<>(cids);
+            fixedRows.removeIf(contact -> removed.contains(contact.getCid()));
+            fireTableDataChanged();
+            return rows.length;
+        }
+        // Bottom up, so the rows of the remaining runs do not move
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            removeRows(runs.get(i)[0], runs.get(i)[1]);
+        }
+        return rows.length;
+    }
+
+    private void removeRows(int first, int last) {
+        if (fixedRows != null) {
+            fixedRows.subList(first, last + 1).clear();
+        } else {
+            int pageIndex = first / PAGE_SIZE;
+            // Later blocks now start at other rows; they are fetched again when needed
+            pages.keySet().removeIf(index -> index > pageIndex);
+            Page page = pages.get(pageIndex);
+            if (page != null) {
+                int from = first % PAGE_SIZE;
+                page.rows.subList(Math.min(from, page.rows.size()),
+                    Math.min(page.rows.size(), from + last - first + 1)).clear();
+            }
+            pendingPages.clear();
+            layoutVersion++;
+            rowCount -= last - first + 1;
+        }
+        fireTableRowsDeleted(first, last);
+    }
+
+    // Model row of the contact, or -1 when it is not held
+    private int findRow(int cid) {
+        if (rowIndexStale) {
+            rebuildRowIndex();
+        }
+        Integer row = rowByCid.get(cid);
+        if (row == null) {
+            return -1;
+        }
+        // Entries of evicted blocks are dropped on first use
+        ContactDTO contact = peekContact(row);
+        if (contact == null || contact.getCid() != cid) {
+            rowByCid.remove(cid);
+            return -1;
+        }
+        return row;
+    }
+
+    private void rebuildRowIndex() {
+        rowByCid.clear();
+        if (fixedRows != null) {
+            for (int row = 0; row < fixedRows.size(); row++) {
+                rowByCid.put(fixedRows.get(row).getCid(), row);
+            }
+        } else {
+            for (Map.Entry<Integer, Page> entry : pages.entrySet()) {
+                indexPage(entry.getKey(), entry.getValue());
+            }
+        }
+        rowIndexStale = false;
+    }
+
+    private void indexPage(int pageIndex, Page page) {
+        int first = pageIndex * PAGE_SIZE;
+        for (int i = 0; i < page.rows.size(); i++) {
+            rowByCid.put(page.rows.get(i).getCid(), first + i);
+        }
+    }
+
+    // Like getContactAt, but never schedules a load
+    private ContactDTO peekContact(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= getRowCount()) {
+            return null;
+        }
+        if (fixedRows != null) {
+            return fixedRows.get(rowIndex);
+        }
+        Page page = pages.get(rowIndex / PAGE_SIZE);
+        int offset = rowIndex % PAGE_SIZE;
+        return page != null && offset < page.rows.size() ? page.rows.get(offset) : null;
+    }
+
+    private void clearPages() {
+        generation++;
+        pages.clear();
+        pendingPages.clear();
+        rowByCid.clear();
+        rowIndexStale = false;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (pageLoader == null || !pendingPages.add(pageIndex)) {
+            return;
+        }
+        Page previous = pageIndex > 0 ? pages.get(pageIndex - 1) : null;
+        String cursor = previous != null && previous.rows.size() == PAGE_SIZE ? previous.nextCursor : null;
+        long offset = (long) pageIndex * PAGE_SIZE;
+        PageLoader source = pageLoader;
+        int expected = generation;
+        int expectedLayout = layoutVersion;
+
+        loader.execute(() -> {
+            if (Math.abs(pageIndex - lastRequestedPage) > MAX_CACHED_PAGES / 2) {
+                // Scrolled past before the load started; the table will ask again if needed
+                SwingUtilities.invokeLater(() -> {
+                    if (expected == generation && expectedLayout == layoutVersion) {
+                        pendingPages.remove(pageIndex);
+                    }
+                });
+                return;
+            }
+            try {
+                ContactSlice slice = source.loadPage(cursor, offset, PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> pageLoaded(expected, expectedLayout, pageIndex, slice));
+            } catch (RuntimeException e) {
+                // The block stays pending so repaints do not retry a failing query in a loop
+                LOGGER.log(Level.SEVERE, "Error loading contact page " + pageIndex, e);
+            }
+        });
+    }
+
+    private void pageLoaded(int expected, int expectedLayout, int pageIndex, ContactSlice slice) {
+        if (expected != generation || expectedLayout != layoutVersion || fixedRows != null) {
+            return;
+        }
+        pendingPages.remove(pageIndex);
+        Page page = new Page(new ArrayList<>(slice.getContacts()), slice.getNextCursor());
+        pages.put(pageIndex, page);
+        if (!rowIndexStale) {
+            indexPage(pageIndex, page);
+        }
+
+        int first = pageIndex * PAGE_SIZE;
+        // The row count is an estimate until the last block has been seen
+        if (!slice.hasMore()) {
+            int actual = first + slice.getContacts().size();
+            if (actual != rowCount) {
+                rowCount = actual;
+                fireTableDataChanged();
+                return;
+            }
+        } else if (first + PAGE_SIZE >= rowCount) {
+            // Keep one placeholder row past the block so scrolling to it loads the next one
+            int old = rowCount;
+            rowCount = first + PAGE_SIZE + 1;
+            fireTableRowsInserted(old, rowCount - 1);
+        }
+        int last = Math.min(rowCount, first + slice.getContacts().size()) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.addressbook.logic;
 
+import com.addressbook.dao.ContactColumn;
+import com.addressbook.model.ContactDTO;
+import com.addressbook.search.SearchMode;
+import com.addressbook.search.SearchResult;
+import com.addressbook.utils.TaskRunner;
 import com.addressbook.utils.ThemeManager;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableColumn;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.util.regex.Pattern;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Handles the contact table UI components and search functionality
@@ -26,11 +35,31 @@ public class ContactTablePanel extends JPanel {
     private static final Font INPUT_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font TABLE_HEADER_FONT = new Font("Segoe UI", Font.BOLD, 13);
     
+    // Quiet period after the last keystroke before a search starts
+    private static final int SEARCH_DELAY_MS = 150;
+    
+    // Sort column for each model column index
+    private static final ContactColumn[] SORT_COLUMNS = {
+        ContactColumn.CID, ContactColumn.FIRST_NAME, ContactColumn.LAST_NAME,
+        ContactColumn.LOCATION, ContactColumn.PHONE, ContactColumn.EMAIL
+    };
+    
     // Table components
     private JTable contactTable;
-    private DefaultTableModel tableModel;
-    private TableRowSorter<DefaultTableModel> sorter;
+    private ContactTableModel tableModel;
     private JTextField searchText;
+    private JComboBox<SearchMode> searchMode;
+    
+    // Data source and current ordering
+    private final ContactService contactService;
+    private ContactColumn sortColumn = ContactColumn.CID;
+    private boolean sortAscending = true;
+    
+    // Live search: keystrokes restart the timer, a newer search cancels the running one,
+    // and the last result lets a longer query narrow it instead of searching everything
+    private Timer searchTimer;
+    private TaskRunner.TaskHandle searchTask;
+    private SearchResult lastResult;
     
     // Callback interface for table actions
     public interface TableActionListener {
@@ -39,7 +68,8 @@ public class ContactTablePanel extends JPanel {
     
     private TableActionListener actionListener;
     
-    public ContactTablePanel(TableActionListener actionListener) {
+    public ContactTablePanel(ContactService contactService, TableActionListener actionListener) {
+        this.contactService = contactService;
         this.actionListener = actionListener;
         initializePanel();
         setupSearch();
@@ -66,12 +96,9 @@ public class ContactTablePanel extends JPanel {
     }
     
     private void createTable() {
-        // Create table model
-        tableModel = new DefaultTableModel(
-            new Object[]{"CID", "First Name", "Last Name", "Location", "Phone", "Email"}, 0);
+        // Create table model; rows are paged in as the viewport scrolls
+        tableModel = new ContactTableModel();
         contactTable = new JTable(tableModel);
-        sorter = new TableRowSorter<>(tableModel);
-        contactTable.setRowSorter(sorter);
         
         // Apply FlatLaf table styling
         ThemeManager.styleTable(contactTable);
@@ -83,6 +110,17 @@ public class ContactTablePanel extends JPanel {
         header.setFont(TABLE_HEADER_FONT);
         header.setReorderingAllowed(false);
         
+        // Sorting happens in the database (or on the result list), never through a RowSorter
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int viewColumn = header.columnAtPoint(e.getPoint());
+                if (viewColumn >= 0) {
+                    sortBy(SORT_COLUMNS[contactTable.convertColumnIndexToModel(viewColumn)]);
+                }
+            }
+        });
+        
         // Hide the CID column
         TableColumn cidColumn = contactTable.getColumnModel().getColumn(0);
         cidColumn.setMinWidth(0);
@@ -99,15 +137,11 @@ public class ContactTablePanel extends JPanel {
         // Add selection listener
         contactTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && contactTable.getSelectedRow() != -1) {
-                int selectedRow = contactTable.getSelectedRow();
-                int cid = Integer.parseInt(contactTable.getValueAt(selectedRow, 0).toString());
-                String firstName = contactTable.getValueAt(selectedRow, 1).toString();
-                String lastName = contactTable.getValueAt(selectedRow, 2).toString();
-                String location = contactTable.getValueAt(selectedRow, 3).toString();
-                String phone = contactTable.getValueAt(selectedRow, 4).toString();
-                String email = contactTable.getValueAt(selectedRow, 5).toString();
-                
-                actionListener.onContactSelected(cid, firstName, lastName, location, phone, email);
+                ContactDTO contact = tableModel.getContactAt(contactTable.getSelectedRow());
+                if (contact != null) {
+                    actionListener.onContactSelected(contact.getCid(), contact.getFirstName(), contact.getLastName(),
+                        contact.getLocation(), contact.getPhone(), contact.getEmail());
+                }
             }
         });
     }
@@ -138,59 +172,137 @@ public class ContactTablePanel extends JPanel {
         searchIcon.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 16));
         searchIcon.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 10));
         
+        // How the search text is matched
+        searchMode = new JComboBox<>(SearchMode.values());
+        searchMode.setFont(INPUT_FONT);
+        searchMode.setPreferredSize(new Dimension(170, 36));
+        
         searchPanel.add(searchIcon);
         searchPanel.add(searchLabel);
         searchPanel.add(searchText);
+        searchPanel.add(Box.createHorizontalStrut(10));
+        searchPanel.add(searchMode);
         
         return searchPanel;
     }
     
     private void setupSearch() {
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> filter());
+        searchTimer.setRepeats(false);
         searchText.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void insertUpdate(DocumentEvent e) { filter(); }
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
             @Override
-            public void removeUpdate(DocumentEvent e) { filter(); }
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
             @Override
-            public void changedUpdate(DocumentEvent e) { filter(); }
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
         });
+        searchMode.addActionListener(e -> filter());
     }
     
     private void filter() {
+        searchTimer.stop();
+        if (searchTask != null) {
+            searchTask.cancel();
+            searchTask = null;
+        }
         String searchQuery = searchText.getText();
         if (searchQuery.isEmpty()) {
-            sorter.setRowFilter(null);
+            lastResult = null;
+            showAllContacts();
+            return;
+        }
+        
+        SearchMode mode = (SearchMode) searchMode.getSelectedItem();
+        SearchResult previous = lastResult;
+        Comparator<ContactDTO> order = comparator();
+        searchTask = TaskRunner.runQuietly(context -> {
+            SearchResult result = contactService.searchContacts(searchQuery, mode, previous);
+            context.checkCancelled();
+            result.getContacts().sort(order);
+            return result;
+        }, result -> {
+            searchTask = null;
+            lastResult = result;
+            tableModel.showContacts(result.getContacts());
+        }, error -> {
+            searchTask = null;
+            contactService.showErrorMessage("Error searching contacts: " + error.getMessage(), ContactTablePanel.this);
+        });
+    }
+    
+    private void sortBy(ContactColumn column) {
+        sortAscending = column != sortColumn || !sortAscending;
+        sortColumn = column;
+        if (tableModel.isPaged()) {
+            showAllContacts();
         } else {
-            javax.swing.RowFilter<DefaultTableModel, Object> filter = 
-                javax.swing.RowFilter.regexFilter("(?i)" + Pattern.quote(searchQuery), 1, 2, 3, 4, 5);
-            sorter.setRowFilter(filter);
+            List<ContactDTO> rows = new ArrayList<>();
+            for (int i = 0; i < tableModel.getRowCount(); i++) {
+                rows.add(tableModel.getContactAt(i));
+            }
+            rows.sort(comparator());
+            tableModel.showContacts(rows);
         }
     }
     
+    // In-memory ordering for result lists, matching the database sort
+    private Comparator<ContactDTO> comparator() {
+        Function<ContactDTO, String> key = switch (sortColumn) {
+            case FIRST_NAME -> ContactDTO::getFirstName;
+            case LAST_NAME -> ContactDTO::getLastName;
+            case LOCATION -> ContactDTO::getLocation;
+            case PHONE -> ContactDTO::getPhone;
+            case EMAIL -> ContactDTO::getEmail;
+            default -> null;
+        };
+        Comparator<ContactDTO> byCid = Comparator.comparingInt(ContactDTO::getCid);
+        Comparator<ContactDTO> order = key == null ? byCid
+            : Comparator.comparing(key, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)).thenComparing(byCid);
+        return sortAscending ? order : order.reversed();
+    }
+    
     // Public methods for external access
-    public void loadContacts(java.util.List<com.addressbook.model.ContactDTO> contacts) {
-        tableModel.setRowCount(0);
-        for (com.addressbook.model.ContactDTO contact : contacts) {
-            tableModel.addRow(new Object[]{
-                contact.getCid(),
-                contact.getFirstName(),
-                contact.getLastName(),
-                contact.getLocation(),
-                contact.getPhone(),
-                contact.getEmail()
-            });
-        }
+    
+    /**
+     * Pages through all contacts in the current sort order.
+     */
+    public void showAllContacts() {
+        ContactColumn column = sortColumn;
+        boolean ascending = sortAscending;
+        tableModel.showPaged(
+            (cursor, offset, pageSize) -> contactService.loadPage(column, ascending, cursor, offset, pageSize),
+            (offset, count) -> contactService.loadCids(column, ascending, offset, count),
+            contactService::estimateContactCount);
     }
     
-    public void addContact(com.addressbook.model.ContactDTO contact) {
-        tableModel.addRow(new Object[]{
-            contact.getCid(),
-            contact.getFirstName(),
-            contact.getLastName(),
-            contact.getLocation(),
-            contact.getPhone(),
-            contact.getEmail()
-        });
+    /**
+     * Reloads the table, keeping the current search and sort
+     */
+    public void reload() {
+        filter();
+    }
+    
+    public void loadContacts(List<ContactDTO> contacts) {
+        tableModel.showContacts(new ArrayList<>(contacts));
+    }
+    
+    public void addContact(ContactDTO contact) {
+        tableModel.appendContact(contact);
+    }
+    
+    /**
+     * Repaints the row of an edited contact in place, keeping order and selection
+     */
+    public void updateContact(ContactDTO contact) {
+        tableModel.updateContact(contact);
+    }
+    
+    /**
+     * Removes the rows of deleted contacts without reloading the table
+     */
+    public void removeContacts(Collection<Integer> cids) {
+        tableModel.removeContacts(cids);
     }
     
     public void refreshTable() {
@@ -202,11 +314,20 @@ public class ContactTablePanel extends JPanel {
     }
     
     public int getSelectedCid() {
-        int selectedRow = contactTable.getSelectedRow();
-        if (selectedRow != -1) {
-            return Integer.parseInt(contactTable.getValueAt(selectedRow, 0).toString());
+        ContactDTO contact = tableModel.getContactAt(contactTable.getSelectedRow());
+        return contact != null ? contact.getCid() : -1;
+    }
+    
+    /**
+     * Returns the selected rows' cids. Rows whose block is not loaded are
+     * read by {@link ContactTableModel.RowSelection#resolve()}, off the EDT.
+     */
+    public ContactTableModel.RowSelection getSelection() {
+        int[] rows = contactTable.getSelectedRows();
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = contactTable.convertRowIndexToModel(rows[i]);
         }
-        return -1;
+        return tableModel.selectRows(rows);
     }
     
     public boolean hasSelection() {
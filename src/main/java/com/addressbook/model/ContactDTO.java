@@ -18,6 +18,20 @@ public class ContactDTO {
     private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
     private static final DateTimeFormatter DATE_ONLY_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
 
+    // Field-by-field copy, so cached instances are never shared with callers
+    public ContactDTO copy() {
+        ContactDTO copy = new ContactDTO();
+        copy.cid = cid;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.location = location;
+        copy.phone = phone;
+        copy.email = email;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     // Getters and setters
     public int getCid() {
         return cid;
@@ -0,0 +1,23 @@
+package com.addressbook.model;
+
+/**
+ * A named group of contacts. Members are held by the group index, not here.
+ */
+public class ContactGroup {
+    private final int gid;
+    private final String name;
+
+    public ContactGroup(int gid, String name) {
+        this.gid = gid;
+        this.name = name;
+    }
+
+    public int getGid() { return gid; }
+
+    public String getName() { return name; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
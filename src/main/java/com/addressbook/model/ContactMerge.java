@@ -0,0 +1,56 @@
+package com.addressbook.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A cluster of contacts that describe the same person, and the contact they
+ * merge into.
+ *
+ * The oldest contact (lowest cid) survives. It keeps its own non-blank fields
+ * and takes blank ones from the other members, oldest first; the other members
+ * are deleted.
+ */
+public class ContactMerge {
+    private final List<ContactDTO> members;
+    private final ContactDTO merged;
+
+    public ContactMerge(List<ContactDTO> members) {
+        if (members.size() < 2) {
+            throw new IllegalArgumentException("A merge needs at least two contacts");
+        }
+        List<ContactDTO> sorted = new ArrayList<>(members);
+        sorted.sort(Comparator.comparingInt(ContactDTO::getCid));
+        this.members = List.copyOf(sorted);
+        this.merged = sorted.get(0).copy();
+        for (ContactDTO other : sorted.subList(1, sorted.size())) {
+            merged.setFirstName(coalesce(merged.getFirstName(), other.getFirstName()));
+            merged.setLastName(coalesce(merged.getLastName(), other.getLastName()));
+            merged.setLocation(coalesce(merged.getLocation(), other.getLocation()));
+            merged.setPhone(coalesce(merged.getPhone(), other.getPhone()));
+            merged.setEmail(coalesce(merged.getEmail(), other.getEmail()));
+        }
+    }
+
+    // All members ordered by cid; the first one survives
+    public List<ContactDTO> getMembers() { return members; }
+
+    // The surviving contact with its merged field values
+    public ContactDTO getMerged() { return merged; }
+
+    public int getSurvivorCid() { return merged.getCid(); }
+
+    // cids of the members that are deleted by the merge
+    public List<Integer> getRemovedCids() {
+        List<Integer> cids = new ArrayList<>(members.size() - 1);
+        for (ContactDTO member : members.subList(1, members.size())) {
+            cids.add(member.getCid());
+        }
+        return cids;
+    }
+
+    private static String coalesce(String value, String fallback) {
+        return value != null && !value.trim().isEmpty() ? value : fallback;
+    }
+}
@@ -0,0 +1,23 @@
+package com.addressbook.model;
+
+import java.util.List;
+
+/**
+ * One page of contacts from a keyset query, plus the cursor for the next page.
+ */
+public class ContactSlice {
+    private final List<ContactDTO> contacts;
+    private final String nextCursor;
+
+    public ContactSlice(List<ContactDTO> contacts, String nextCursor) {
+        this.contacts = contacts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ContactDTO> getContacts() { return contacts; }
+
+    // Null when this is the last page
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,25 @@
+package com.addressbook.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One contact's membership in a group, as stored in a backup.
+ */
+public class GroupMembership {
+    private final int gid;
+    private final int cid;
+    // null for backups written before memberships carried it
+    private final LocalDateTime addedAt;
+
+    public GroupMembership(int gid, int cid, LocalDateTime addedAt) {
+        this.gid = gid;
+        this.cid = cid;
+        this.addedAt = addedAt;
+    }
+
+    public int getGid() { return gid; }
+
+    public int getCid() { return cid; }
+
+    public LocalDateTime getAddedAt() { return addedAt; }
+}
@@ -0,0 +1,350 @@
+package com.addressbook.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ids in the style of a Roaring bitmap.
+ *
+ * Ids are split by their high 16 bits into chunks of 65536. A chunk with up to
+ * 4096 ids is a sorted char array, a denser one a 65536-bit bitmap, so no
+ * chunk takes more than 8 KB and sparse sets cost two bytes per id.
+ * Intersections work chunk by chunk: array against array merges, array against
+ * bitmap probes, bitmap against bitmap ANDs 64 bits at a time. Not thread-safe.
+ */
+final class CidBitmap {
+    private static final int ARRAY_MAX = 4096;
+
+    private char[] highs = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private int cardinality;
+
+    boolean add(int id) {
+        char high = (char) (id >>> 16);
+        int pos = find(high);
+        if (pos < 0) {
+            pos = -pos - 1;
+            insertAt(pos, high, new ArrayContainer());
+        }
+        Container container = containers[pos];
+        int before = container.cardinality;
+        containers[pos] = container.add((char) id);
+        boolean added = containers[pos].cardinality != before;
+        if (added) {
+            cardinality++;
+        }
+        return added;
+    }
+
+    boolean remove(int id) {
+        int pos = find((char) (id >>> 16));
+        if (pos < 0) {
+            return false;
+        }
+        Container container = containers[pos];
+        int before = container.cardinality;
+        Container after = container.remove((char) id);
+        if (after.cardinality == before) {
+            return false;
+        }
+        cardinality--;
+        if (after.cardinality == 0) {
+            System.arraycopy(highs, pos + 1, highs, pos, size - pos - 1);
+            System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+            containers[--size] = null;
+        } else {
+            containers[pos] = after;
+        }
+        return true;
+    }
+
+    boolean contains(int id) {
+        int pos = find((char) (id >>> 16));
+        return pos >= 0 && containers[pos].contains((char) id);
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    CidBitmap and(CidBitmap other) {
+        CidBitmap result = new CidBitmap();
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (highs[i] < other.highs[j]) {
+                i++;
+            } else if (highs[i] > other.highs[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0) {
+                    result.insertAt(result.size, highs[i], container);
+                    result.cardinality += container.cardinality;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    int andCardinality(CidBitmap other) {
+        int count = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (highs[i] < other.highs[j]) {
+                i++;
+            } else if (highs[i] > other.highs[j]) {
+                j++;
+            } else {
+                count += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    // Ids in ascending order
+    int[] toArray() {
+        int[] ids = new int[cardinality];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n = containers[i].copyTo(highs[i] << 16, ids, n);
+        }
+        return ids;
+    }
+
+    private int find(char high) {
+        return Arrays.binarySearch(highs, 0, size, high);
+    }
+
+    private void insertAt(int pos, char high, Container container) {
+        if (size == highs.length) {
+            highs = Arrays.copyOf(highs, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(highs, pos, highs, pos + 1, size - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+        highs[pos] = high;
+        containers[pos] = container;
+        size++;
+    }
+
+    // The low 16 bits of the ids in one chunk. add and remove return the container
+    // to keep, which differs when the chunk switches representation.
+    private abstract static class Container {
+        int cardinality;
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract boolean contains(char low);
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract int copyTo(int base, int[] ids, int from);
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            int pos = Arrays.binarySearch(values, 0, cardinality, low);
+            if (pos >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            pos = -pos - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int pos = Arrays.binarySearch(values, 0, cardinality, low);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0, j = 0; i < cardinality && j < array.cardinality; ) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[n++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0, j = 0; i < cardinality && j < array.cardinality; ) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        n++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        n++;
+                    }
+                }
+            }
+            return n;
+        }
+
+        @Override
+        int copyTo(int base, int[] ids, int from) {
+            for (int i = 0; i < cardinality; i++) {
+                ids[from++] = base | values[i];
+            }
+            return from;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words = new long[1024];
+
+        @Override
+        Container add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                words[low >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            int n = 0;
+            for (int i = 0; i < words.length; i++) {
+                result.words[i] = words[i] & bitmap.words[i];
+                n += Long.bitCount(result.words[i]);
+            }
+            result.cardinality = n;
+            return n <= ARRAY_MAX ? result.toArray() : result;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            int n = 0;
+            for (int i = 0; i < words.length; i++) {
+                n += Long.bitCount(words[i] & bitmap.words[i]);
+            }
+            return n;
+        }
+
+        @Override
+        int copyTo(int base, int[] ids, int from) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    ids[from++] = base | (i << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return from;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
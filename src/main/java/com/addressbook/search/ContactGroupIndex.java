@@ -0,0 +1,268 @@
+package com.addressbook.search;
+
+import com.addressbook.dao.CachedContactDAO;
+import com.addressbook.dao.ContactCacheListener;
+import com.addressbook.dao.ContactQuery;
+import com.addressbook.dao.GroupDAO;
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactGroup;
+import com.addressbook.model.ContactMerge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contact groups with their members held in memory as one compressed bitmap
+ * per group.
+ *
+ * Member counts and intersections ("Berlin AND Customers") are answered
+ * from the bitmaps without touching the database. Groups are loaded on first
+ * use and written through on every change; contacts that leave the contact
+ * cache leave their groups, and merged contacts pass their groups on to the
+ * survivor, as the database does.
+ */
+public class ContactGroupIndex implements ContactCacheListener {
+    private final GroupDAO groupDAO;
+    private final CachedContactDAO contactDAO;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes loads and writes, so a load never misses a concurrent write
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Map<Integer, ContactGroup> groups = new HashMap<>();
+    private Map<Integer, CidBitmap> members = new HashMap<>();
+    private volatile boolean stale = true;
+
+    public ContactGroupIndex(GroupDAO groupDAO, CachedContactDAO contactDAO) {
+        this.groupDAO = groupDAO;
+        this.contactDAO = contactDAO;
+        contactDAO.addListener(this);
+    }
+
+    /**
+     * Loads groups and memberships if they have not been loaded yet or the
+     * contact cache was reloaded since.
+     */
+    public void sync() {
+        if (!stale) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (!stale) {
+                return;
+            }
+            // Load the contacts first, so removals from now on reach this index
+            contactDAO.sync();
+            stale = false;
+            Map<Integer, ContactGroup> loadedGroups = new HashMap<>();
+            for (ContactGroup group : groupDAO.getGroups()) {
+                loadedGroups.put(group.getGid(), group);
+            }
+            Map<Integer, CidBitmap> loadedMembers = new HashMap<>();
+            groupDAO.forEachMembership((gid, cid) -> loadedMembers.computeIfAbsent(gid, g -> new CidBitmap()).add(cid));
+            lock.writeLock().lock();
+            try {
+                groups = loadedGroups;
+                members = loadedMembers;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Groups ordered by name
+    public List<ContactGroup> getGroups() {
+        sync();
+        lock.readLock().lock();
+        try {
+            List<ContactGroup> result = new ArrayList<>(groups.values());
+            result.sort(Comparator.comparing(ContactGroup::getName, String.CASE_INSENSITIVE_ORDER));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(int gid) {
+        sync();
+        lock.readLock().lock();
+        try {
+            CidBitmap bitmap = members.get(gid);
+            return bitmap != null ? bitmap.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * cids that belong to every one of the groups, ascending.
+     */
+    public int[] intersection(Collection<Integer> gids) {
+        sync();
+        lock.readLock().lock();
+        try {
+            List<CidBitmap> bitmaps = bitmaps(gids);
+            if (bitmaps.isEmpty()) {
+                return new int[0];
+            }
+            CidBitmap result = bitmaps.get(0);
+            for (CidBitmap bitmap : bitmaps.subList(1, bitmaps.size())) {
+                result = result.and(bitmap);
+            }
+            return result.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of contacts in every one of the groups; with two groups no intermediate set is built
+    public int intersectionCount(Collection<Integer> gids) {
+        sync();
+        lock.readLock().lock();
+        try {
+            List<CidBitmap> bitmaps = bitmaps(gids);
+            if (bitmaps.isEmpty()) {
+                return 0;
+            }
+            if (bitmaps.size() == 1) {
+                return bitmaps.get(0).cardinality();
+            }
+            CidBitmap result = bitmaps.get(0);
+            for (CidBitmap bitmap : bitmaps.subList(1, bitmaps.size() - 1)) {
+                result = result.and(bitmap);
+            }
+            return result.andCardinality(bitmaps.get(bitmaps.size() - 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copies of the cached contacts with the given ids, in the given order
+    public List<ContactDTO> getContacts(int[] cids) {
+        return contactDAO.getCachedContacts(cids);
+    }
+
+    public ContactGroup createGroup(String name) {
+        sync();
+        writeLock.lock();
+        try {
+            ContactGroup group = groupDAO.createGroup(name);
+            lock.writeLock().lock();
+            try {
+                groups.put(group.getGid(), group);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return group;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void deleteGroup(int gid) {
+        sync();
+        writeLock.lock();
+        try {
+            groupDAO.deleteGroup(gid);
+            lock.writeLock().lock();
+            try {
+                groups.remove(gid);
+                members.remove(gid);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds every contact matching the query's filters in one server-side
+     * statement. Returns the number of contacts that were not members yet.
+     */
+    public int addMembers(int gid, ContactQuery query) {
+        sync();
+        writeLock.lock();
+        try {
+            int[] added = groupDAO.addMembers(gid, query);
+            addToBitmap(gid, added);
+            return added.length;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void contactsReloaded(Collection<ContactDTO> contacts) {
+        // Contacts deleted elsewhere took their memberships with them
+        stale = true;
+    }
+
+    @Override
+    public void contactUpserted(ContactDTO contact) {
+    }
+
+    @Override
+    public void contactRemoved(int cid) {
+        lock.writeLock().lock();
+        try {
+            for (CidBitmap bitmap : members.values()) {
+                bitmap.remove(cid);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void contactsMerged(List<ContactMerge> merges) {
+        lock.writeLock().lock();
+        try {
+            for (CidBitmap bitmap : members.values()) {
+                for (ContactMerge merge : merges) {
+                    for (int cid : merge.getRemovedCids()) {
+                        if (bitmap.contains(cid)) {
+                            bitmap.add(merge.getSurvivorCid());
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addToBitmap(int gid, int[] cids) {
+        lock.writeLock().lock();
+        try {
+            CidBitmap bitmap = members.computeIfAbsent(gid, g -> new CidBitmap());
+            for (int cid : cids) {
+                bitmap.add(cid);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bitmaps of the groups, smallest first so intersections shrink fast; empty if any group is empty
+    private List<CidBitmap> bitmaps(Collection<Integer> gids) {
+        List<CidBitmap> bitmaps = new ArrayList<>(gids.size());
+        for (int gid : gids) {
+            CidBitmap bitmap = members.get(gid);
+            if (bitmap == null || bitmap.cardinality() == 0) {
+                return List.of();
+            }
+            bitmaps.add(bitmap);
+        }
+        bitmaps.sort(Comparator.comparingInt(CidBitmap::cardinality));
+        return bitmaps;
+    }
+}
@@ -0,0 +1,206 @@
+package com.addressbook.search;
+
+import com.addressbook.dao.CachedContactDAO;
+import com.addressbook.dao.ContactCacheListener;
+import com.addressbook.model.ContactDTO;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring search over firstName, lastName, email, phone and
+ * location, backed by a trigram index kept in step with the contact cache.
+ *
+ * Queries of three or more characters intersect the posting lists of their
+ * trigrams and only verify the few surviving candidates. Shorter queries have
+ * no trigram and fall back to a scan of the normalised field values. A query
+ * that extends the previous one only re-checks the previous matches, as long
+ * as the index has not changed in between.
+ */
+public class ContactSearchIndex implements ContactCacheListener {
+    // Scans poll for cancellation once per this many + 1 entries
+    private static final int INTERRUPT_CHECK_MASK = 0xFFF;
+
+    private final CachedContactDAO contactDAO;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramIndex index = new TrigramIndex();
+    // Normalised field values per cid, used to verify candidates and to unindex old values
+    private final Map<Integer, String[]> fields = new HashMap<>();
+    // Bumped on every change, so an earlier result can tell whether it is still current
+    private long version;
+
+    public ContactSearchIndex(CachedContactDAO contactDAO) {
+        this.contactDAO = contactDAO;
+        contactDAO.addListener(this);
+    }
+
+    // Detached index fed through the listener methods only, for benchmarks
+    ContactSearchIndex() {
+        this.contactDAO = null;
+    }
+
+    /**
+     * Returns copies of all contacts with a field containing the query, ignoring
+     * case, ordered by cid. A blank query matches every contact.
+     */
+    public List<ContactDTO> search(String query) {
+        String needle = normalize(query.trim());
+        if (needle.isEmpty()) {
+            return contactDAO.getAllContacts();
+        }
+        contactDAO.sync();
+        return contactDAO.getCachedContacts(matchingIds(needle));
+    }
+
+    /**
+     * Like {@link #search(String)} for a non-blank query, but when the query
+     * extends the one behind the previous result and nothing changed since,
+     * only the previous matches are checked again. Stops with a
+     * CancellationException when the calling thread is interrupted.
+     */
+    public SearchResult search(String query, SearchResult previous) {
+        String needle = normalize(query.trim());
+        contactDAO.sync();
+        int[] ids;
+        long current;
+        lock.readLock().lock();
+        try {
+            current = version;
+            boolean narrow = previous != null && previous.getMode() == SearchMode.CONTAINS
+                    && previous.getVersion() == current
+                    && !previous.getNeedle().isEmpty() && needle.contains(previous.getNeedle());
+            ids = narrow ? verify(previous.getIds(), needle) : matchingIds(needle);
+        } finally {
+            lock.readLock().unlock();
+        }
+        checkInterrupted();
+        return new SearchResult(SearchMode.CONTAINS, needle, current, ids, contactDAO.getCachedContacts(ids));
+    }
+
+    int[] matchingIds(String needle) {
+        lock.readLock().lock();
+        try {
+            int[] candidates = index.candidates(needle);
+            if (candidates != null) {
+                return verify(candidates, needle);
+            }
+            int[] matches = new int[fields.size()];
+            int count = 0;
+            int scanned = 0;
+            for (Map.Entry<Integer, String[]> entry : fields.entrySet()) {
+                if ((++scanned & INTERRUPT_CHECK_MASK) == 0) {
+                    checkInterrupted();
+                }
+                if (contains(entry.getValue(), needle)) {
+                    matches[count++] = entry.getKey();
+                }
+            }
+            Arrays.sort(matches, 0, count);
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids, in their given order, whose fields contain the needle; called with the read lock held
+    private int[] verify(int[] ids, String needle) {
+        int[] matches = new int[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if ((i & INTERRUPT_CHECK_MASK) == INTERRUPT_CHECK_MASK) {
+                checkInterrupted();
+            }
+            String[] values = fields.get(ids[i]);
+            if (values != null && contains(values, needle)) {
+                matches[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Search cancelled");
+        }
+    }
+
+    @Override
+    public void contactsReloaded(Collection<ContactDTO> contacts) {
+        ContactDTO[] sorted = contacts.toArray(new ContactDTO[0]);
+        // Ascending cids turn every posting insert into an append
+        Arrays.sort(sorted, Comparator.comparingInt(ContactDTO::getCid));
+        lock.writeLock().lock();
+        try {
+            version++;
+            index.clear();
+            fields.clear();
+            for (ContactDTO contact : sorted) {
+                insert(contact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void contactUpserted(ContactDTO contact) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            delete(contact.getCid());
+            insert(contact);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void contactRemoved(int cid) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            delete(cid);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(ContactDTO contact) {
+        String[] values = {
+                normalize(contact.getFirstName()),
+                normalize(contact.getLastName()),
+                normalize(contact.getEmail()),
+                normalize(contact.getPhone()),
+                normalize(contact.getLocation())
+        };
+        fields.put(contact.getCid(), values);
+        index.add(contact.getCid(), values);
+    }
+
+    private void delete(int cid) {
+        String[] values = fields.remove(cid);
+        if (values != null) {
+            index.remove(cid, values);
+        }
+    }
+
+    private static boolean contains(String[] values, String needle) {
+        for (String value : values) {
+            if (value != null && value.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,256 @@
+package com.addressbook.search;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactMerge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Finds clusters of contacts that describe the same person.
+ *
+ * Comparing every pair is quadratic, so contacts are first grouped into blocks
+ * by normalized email, by phone digits and by the Cologne codes of their
+ * names. Only contacts that share a block are compared, and the blocks are
+ * scored in parallel on the common fork-join pool. Matching pairs are joined
+ * with union-find, so A~B and B~C put all three into one cluster.
+ *
+ * Two contacts match when
+ * <ul>
+ *   <li>email and phone are both equal, or</li>
+ *   <li>email or phone is equal and the names are similar, or</li>
+ *   <li>the names are similar, the location is equal and neither email nor
+ *       phone differ (blank on at least one side counts as no difference).</li>
+ * </ul>
+ * Names are similar when their folded spellings are within 20% edit distance.
+ */
+public final class DuplicateFinder {
+    // A key shared by more contacts than this (a common name, a switchboard
+    // number) does not single out a person; such blocks are not compared
+    static final int MAX_BLOCK_SIZE = 50;
+    private static final double MIN_NAME_SIMILARITY = 0.8;
+
+    private static final int EMAIL = 0;
+    private static final int PHONE = 1;
+    private static final int NAME = 2;
+    private static final int KEY_COUNT = 3;
+
+    private DuplicateFinder() {
+    }
+
+    /**
+     * Returns the merge clusters ordered by survivor cid. Throws
+     * CancellationException if the calling thread is interrupted between phases.
+     */
+    public static List<ContactMerge> findMerges(Collection<ContactDTO> contacts) {
+        ContactDTO[] all = contacts.toArray(new ContactDTO[0]);
+        Profile[] profiles = new Profile[all.length];
+        // Names repeat a lot, so each distinct word is folded and encoded once
+        Map<String, String[]> wordForms = new ConcurrentHashMap<>();
+        IntStream.range(0, all.length).parallel().forEach(i -> profiles[i] = new Profile(all[i], wordForms));
+        checkInterrupted();
+
+        List<Block> blocks = new ArrayList<>();
+        for (int slot = 0; slot < KEY_COUNT; slot++) {
+            blocks.addAll(blocks(profiles, slot));
+        }
+        checkInterrupted();
+
+        long[] pairs = blocks.parallelStream()
+                .flatMapToLong(block -> matches(profiles, block))
+                .toArray();
+        checkInterrupted();
+
+        int[] parent = new int[all.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (long pair : pairs) {
+            union(parent, (int) (pair >>> 32), (int) pair);
+        }
+
+        Map<Integer, List<ContactDTO>> clusters = new HashMap<>();
+        for (long pair : pairs) {
+            int root = find(parent, (int) (pair >>> 32));
+            clusters.computeIfAbsent(root, r -> new ArrayList<>());
+        }
+        for (int i = 0; i < all.length; i++) {
+            List<ContactDTO> cluster = clusters.get(find(parent, i));
+            if (cluster != null) {
+                cluster.add(all[i]);
+            }
+        }
+        List<ContactMerge> merges = new ArrayList<>(clusters.size());
+        for (List<ContactDTO> cluster : clusters.values()) {
+            merges.add(new ContactMerge(cluster));
+        }
+        merges.sort(Comparator.comparingInt(ContactMerge::getSurvivorCid));
+        return merges;
+    }
+
+    // Groups profile indexes by one key; records each profile's block size for that key
+    private static List<Block> blocks(Profile[] profiles, int slot) {
+        Map<String, Postings> byKey = new HashMap<>();
+        for (int i = 0; i < profiles.length; i++) {
+            String key = profiles[i].keys[slot];
+            if (key != null) {
+                byKey.computeIfAbsent(key, k -> new Postings()).add(i);
+            }
+        }
+        List<Block> blocks = new ArrayList<>();
+        for (Postings list : byKey.values()) {
+            int[] block = list.toArray();
+            for (int i : block) {
+                profiles[i].blockSizes[slot] = block.length;
+            }
+            if (block.length > 1 && block.length <= MAX_BLOCK_SIZE) {
+                blocks.add(new Block(slot, block));
+            }
+        }
+        return blocks;
+    }
+
+    // Matching pairs of one block as (lower index << 32 | higher index)
+    private static LongStream matches(Profile[] profiles, Block block) {
+        int[] members = block.members();
+        LongStream.Builder pairs = LongStream.builder();
+        for (int i = 0; i < members.length; i++) {
+            for (int j = i + 1; j < members.length; j++) {
+                Profile a = profiles[members[i]];
+                Profile b = profiles[members[j]];
+                if (!comparedEarlier(a, b, block.slot()) && a.matches(b)) {
+                    pairs.add((long) members[i] << 32 | members[j]);
+                }
+            }
+        }
+        return pairs.build();
+    }
+
+    // A pair that shares several keys is compared only in the first block that holds it
+    private static boolean comparedEarlier(Profile a, Profile b, int slot) {
+        for (int earlier = 0; earlier < slot; earlier++) {
+            if (a.keys[earlier] != null && a.keys[earlier].equals(b.keys[earlier])
+                    && a.blockSizes[earlier] <= MAX_BLOCK_SIZE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Duplicate search cancelled");
+        }
+    }
+
+    // Profile indexes in ascending order that share the key in one slot
+    private record Block(int slot, int[] members) {
+    }
+
+    // Normalized fields and blocking keys of one contact
+    private static final class Profile {
+        final String name;
+        final String location;
+        final String[] keys = new String[KEY_COUNT];
+        final int[] blockSizes = new int[KEY_COUNT];
+
+        Profile(ContactDTO contact, Map<String, String[]> wordForms) {
+            List<String> words = new ArrayList<>();
+            words.addAll(NameTermIndex.words(contact.getFirstName()));
+            words.addAll(NameTermIndex.words(contact.getLastName()));
+            StringBuilder folded = new StringBuilder();
+            StringBuilder codes = new StringBuilder();
+            for (String word : words) {
+                String[] forms = wordForms.computeIfAbsent(word,
+                        w -> new String[]{FuzzyNameIndex.fold(w), PhoneticNameIndex.code(w)});
+                folded.append(folded.length() > 0 ? " " : "").append(forms[0]);
+                codes.append(codes.length() > 0 ? " " : "").append(forms[1]);
+            }
+            this.name = folded.toString();
+            this.location = blankToNull(lower(contact.getLocation()));
+            keys[EMAIL] = blankToNull(lower(contact.getEmail()));
+            keys[PHONE] = phoneDigits(contact.getPhone());
+            keys[NAME] = blankToNull(codes.toString().trim());
+        }
+
+        boolean matches(Profile other) {
+            boolean email = same(EMAIL, other);
+            boolean phone = same(PHONE, other);
+            if (email && phone) {
+                return true;
+            }
+            if (nameSimilarity(other) < MIN_NAME_SIMILARITY) {
+                return false;
+            }
+            if (email || phone) {
+                return true;
+            }
+            return location != null && location.equals(other.location)
+                    && !differs(EMAIL, other) && !differs(PHONE, other);
+        }
+
+        private boolean same(int slot, Profile other) {
+            return keys[slot] != null && keys[slot].equals(other.keys[slot]);
+        }
+
+        private boolean differs(int slot, Profile other) {
+            return keys[slot] != null && other.keys[slot] != null && !keys[slot].equals(other.keys[slot]);
+        }
+
+        private double nameSimilarity(Profile other) {
+            int length = Math.max(name.length(), other.name.length());
+            if (length == 0) {
+                return 0;
+            }
+            return 1 - (double) BkTree.distance(name, other.name) / length;
+        }
+    }
+
+    // Digits only, so "+49 171 2345678" and "+491712345678" agree; too short to identify anyone is null
+    private static String phoneDigits(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.length() >= 6 ? digits.toString() : null;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,92 @@
+package com.addressbook.search;
+
+import com.addressbook.dao.CachedContactDAO;
+import com.addressbook.dao.ContactCacheListener;
+import com.addressbook.model.ContactDTO;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hash index over the identity enforced by the unique_contact constraint:
+ * (firstName, lastName, email), trimmed and compared case-insensitively like
+ * the database's default collation.
+ *
+ * Lookups are O(1) and lock-free; the index is updated incrementally from the
+ * contact cache, so it never needs the full contact list.
+ */
+public class DuplicateIndex implements ContactCacheListener {
+    private final CachedContactDAO contactDAO;
+    private final Map<String, Integer> cidByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, String> keyByCid = new ConcurrentHashMap<>();
+
+    public DuplicateIndex(CachedContactDAO contactDAO) {
+        this.contactDAO = contactDAO;
+        contactDAO.addListener(this);
+    }
+
+    /**
+     * True if another stored contact already has the same first name, last name
+     * and email. The contact's own cid is ignored, so edits are not flagged.
+     */
+    public boolean isDuplicate(ContactDTO contact) {
+        contactDAO.sync();
+        Integer cid = cidByKey.get(key(contact));
+        return cid != null && cid != contact.getCid();
+    }
+
+    /**
+     * Looks a key up without refreshing the cache first. For bulk callers that
+     * call {@link #refresh()} once up front.
+     */
+    public boolean containsKey(String key) {
+        return cidByKey.containsKey(key);
+    }
+
+    public void refresh() {
+        contactDAO.sync();
+    }
+
+    public static String key(ContactDTO contact) {
+        return key(contact.getFirstName(), contact.getLastName(), contact.getEmail());
+    }
+
+    public static String key(String firstName, String lastName, String email) {
+        return normalize(firstName) + '\u0000' + normalize(lastName) + '\u0000' + normalize(email);
+    }
+
+    @Override
+    public void contactsReloaded(Collection<ContactDTO> contacts) {
+        cidByKey.clear();
+        keyByCid.clear();
+        for (ContactDTO contact : contacts) {
+            put(contact);
+        }
+    }
+
+    @Override
+    public void contactUpserted(ContactDTO contact) {
+        contactRemoved(contact.getCid());
+        put(contact);
+    }
+
+    @Override
+    public void contactRemoved(int cid) {
+        String key = keyByCid.remove(cid);
+        if (key != null) {
+            cidByKey.remove(key, cid);
+        }
+    }
+
+    private void put(ContactDTO contact) {
+        String key = key(contact);
+        keyByCid.put(contact.getCid(), key);
+        cidByKey.putIfAbsent(key, contact.getCid());
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,91 @@
+package com.addressbook.search;
+
+import com.addressbook.dao.CachedContactDAO;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Typo-tolerant search over first and last names.
+ *
+ * Every distinct name word is folded (lower case, umlauts spelled out, other
+ * accents dropped, so "Müller" and "Mueller" are the same term) and stored once
+ * in a BK-tree. A query word is looked up in the tree within an edit distance
+ * that grows with its length, and the posting lists of the terms found give
+ * the contacts. The cost depends on the number of distinct names, not on the
+ * number of contacts.
+ */
+public class FuzzyNameIndex extends NameTermIndex {
+    private final BkTree terms = new BkTree();
+
+    public FuzzyNameIndex(CachedContactDAO contactDAO) {
+        super(contactDAO);
+    }
+
+    // Detached index fed through the listener methods only, for benchmarks
+    FuzzyNameIndex() {
+        super(null);
+    }
+
+    /**
+     * Returns copies of the contacts whose names contain, for every word of the
+     * query, a word within one edit (two for words of six letters or more).
+     * Words of one or two letters must match exactly.
+     */
+    public SearchResult search(String query) {
+        return search(query, SearchMode.FUZZY);
+    }
+
+    @Override
+    String term(String word) {
+        return fold(word);
+    }
+
+    @Override
+    Collection<String> expand(String word) {
+        String term = fold(word);
+        return terms.search(term, maxDistance(term.length()));
+    }
+
+    @Override
+    void termAdded(String term) {
+        terms.add(term);
+    }
+
+    @Override
+    void cleared() {
+        terms.clear();
+    }
+
+    static int maxDistance(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length < 6 ? 1 : 2;
+    }
+
+    // Lower case with German umlauts spelled out and remaining diacritics removed
+    static String fold(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(lower.length() + 2);
+        boolean ascii = true;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ä' -> folded.append("ae");
+                case 'ö' -> folded.append("oe");
+                case 'ü' -> folded.append("ue");
+                case 'ß' -> folded.append("ss");
+                default -> {
+                    folded.append(c);
+                    ascii &= c < 128;
+                }
+            }
+        }
+        if (ascii) {
+            return folded.toString();
+        }
+        return Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+}
@@ -0,0 +1,216 @@
+package com.addressbook.search;
+
+import com.addressbook.dao.CachedContactDAO;
+import com.addressbook.dao.ContactCacheListener;
+import com.addressbook.model.ContactDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from name terms to contact ids over firstName and lastName,
+ * kept in step with the contact cache. Subclasses decide what a term is (a
+ * folded spelling, a phonetic code) and how query words expand into terms.
+ *
+ * A query matches a contact when every query word matches at least one of the
+ * contact's name terms, so answering it is a union of posting lists per word
+ * followed by an intersection across words; no contact is ever scanned.
+ */
+abstract class NameTermIndex implements ContactCacheListener {
+    final CachedContactDAO contactDAO;
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Terms per cid, to unindex a contact's old name when it changes
+    private final Map<Integer, String[]> termsByCid = new HashMap<>();
+
+    NameTermIndex(CachedContactDAO contactDAO) {
+        this.contactDAO = contactDAO;
+        if (contactDAO != null) {
+            contactDAO.addListener(this);
+        }
+    }
+
+    // Index term for one word of a name, or null if the word yields none
+    abstract String term(String word);
+
+    // Terms a query word should match; called with the read lock held
+    abstract Collection<String> expand(String word);
+
+    // Called with the write lock held the first time a term gets a posting
+    void termAdded(String term) {
+    }
+
+    // Called with the write lock held before a full reload
+    void cleared() {
+    }
+
+    /**
+     * Returns copies of the matching contacts ordered by cid, refreshing the
+     * cache first.
+     */
+    SearchResult search(String query, SearchMode mode) {
+        contactDAO.sync();
+        int[] ids = matchingIds(query);
+        return new SearchResult(mode, "", -1, ids, contactDAO.getCachedContacts(ids));
+    }
+
+    int[] matchingIds(String query) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            int[] result = null;
+            for (String word : words) {
+                List<Postings> lists = new ArrayList<>();
+                for (String term : expand(word)) {
+                    Postings list = postings.get(term);
+                    if (list != null && list.size > 0) {
+                        lists.add(list);
+                    }
+                }
+                if (lists.isEmpty()) {
+                    return new int[0];
+                }
+                int[] ids = Postings.union(lists);
+                result = result == null ? ids : intersect(result, ids);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // True if any contact has the term; called with the read lock held
+    boolean hasTerm(String term) {
+        Postings list = postings.get(term);
+        return list != null && list.size > 0;
+    }
+
+    @Override
+    public void contactsReloaded(Collection<ContactDTO> contacts) {
+        ContactDTO[] sorted = contacts.toArray(new ContactDTO[0]);
+        // Ascending cids turn every posting insert into an append
+        Arrays.sort(sorted, Comparator.comparingInt(ContactDTO::getCid));
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByCid.clear();
+            cleared();
+            for (ContactDTO contact : sorted) {
+                insert(contact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void contactUpserted(ContactDTO contact) {
+        lock.writeLock().lock();
+        try {
+            delete(contact.getCid());
+            insert(contact);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void contactRemoved(int cid) {
+        lock.writeLock().lock();
+        try {
+            delete(cid);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(ContactDTO contact) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String name : new String[]{contact.getFirstName(), contact.getLastName()}) {
+            for (String word : words(name)) {
+                String term = term(word);
+                if (term != null && !term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+        if (terms.isEmpty()) {
+            return;
+        }
+        String[] array = terms.toArray(new String[0]);
+        termsByCid.put(contact.getCid(), array);
+        for (String term : array) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                list = new Postings();
+                postings.put(term, list);
+                termAdded(term);
+            }
+            list.add(contact.getCid());
+        }
+    }
+
+    private void delete(int cid) {
+        String[] terms = termsByCid.remove(cid);
+        if (terms == null) {
+            return;
+        }
+        // Emptied lists stay, so terms known to subclasses keep their postings entry
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.remove(cid);
+            }
+        }
+    }
+
+    // Words of a name or query: runs of letters, so "Müller-Lüdenscheidt" has two
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetter(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
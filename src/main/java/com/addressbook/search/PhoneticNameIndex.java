@@ -0,0 +1,96 @@
+package com.addressbook.search;
+
+import com.addressbook.dao.CachedContactDAO;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sound-alike search over first and last names using Cologne phonetics
+ * (Kölner Phonetik), which is tuned to German spelling: "Meyer", "Maier" and
+ * "Mayer" all encode to "67".
+ *
+ * Every name word is indexed under its code, so a query word costs one encode
+ * and one posting lookup regardless of the number of contacts.
+ */
+public class PhoneticNameIndex extends NameTermIndex {
+
+    public PhoneticNameIndex(CachedContactDAO contactDAO) {
+        super(contactDAO);
+    }
+
+    // Detached index fed through the listener methods only, for benchmarks
+    PhoneticNameIndex() {
+        super(null);
+    }
+
+    /**
+     * Returns copies of the contacts whose names contain, for every word of the
+     * query, a word with the same Cologne code.
+     */
+    public SearchResult search(String query) {
+        return search(query, SearchMode.SOUNDS_LIKE);
+    }
+
+    @Override
+    String term(String word) {
+        return code(word);
+    }
+
+    @Override
+    Collection<String> expand(String word) {
+        String code = code(word);
+        return code.isEmpty() ? List.of() : List.of(code);
+    }
+
+    /**
+     * Cologne code of one word. Umlauts and accents are folded first; letters
+     * outside a-z are ignored.
+     */
+    static String code(String word) {
+        String s = FuzzyNameIndex.fold(word);
+        StringBuilder code = new StringBuilder(s.length());
+        char last = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char prev = i > 0 ? s.charAt(i - 1) : 0;
+            char next = i + 1 < s.length() ? s.charAt(i + 1) : 0;
+            String digits = digits(c, prev, next, i == 0);
+            // h and non-letters produce nothing and do not separate repeats
+            for (int d = 0; d < digits.length(); d++) {
+                char digit = digits.charAt(d);
+                if (digit != last) {
+                    // Vowels only count at the start
+                    if (digit != '0' || code.length() == 0) {
+                        code.append(digit);
+                    }
+                    last = digit;
+                }
+            }
+        }
+        return code.toString();
+    }
+
+    private static String digits(char c, char prev, char next, boolean first) {
+        return switch (c) {
+            case 'a', 'e', 'i', 'j', 'o', 'u', 'y' -> "0";
+            case 'b' -> "1";
+            case 'p' -> next == 'h' ? "3" : "1";
+            case 'd', 't' -> next == 'c' || next == 's' || next == 'z' ? "8" : "2";
+            case 'f', 'v', 'w' -> "3";
+            case 'g', 'k', 'q' -> "4";
+            case 'c' -> {
+                if (first) {
+                    yield "ahkloqrux".indexOf(next) >= 0 ? "4" : "8";
+                }
+                yield prev != 's' && prev != 'z' && "ahkoqux".indexOf(next) >= 0 ? "4" : "8";
+            }
+            case 'x' -> prev == 'c' || prev == 'k' || prev == 'q' ? "8" : "48";
+            case 'l' -> "5";
+            case 'm', 'n' -> "6";
+            case 'r' -> "7";
+            case 's', 'z' -> "8";
+            default -> "";
+        };
+    }
+}
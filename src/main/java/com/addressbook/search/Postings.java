@@ -0,0 +1,101 @@
+package com.addressbook.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted, duplicate-free list of ids, the posting list of one index term. Ids
+ * mostly arrive in ascending order, so adds are usually appends. Not thread-safe.
+ */
+final class Postings {
+    int[] ids = new int[4];
+    int size;
+
+    void add(int id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            insertAt(-pos - 1, id);
+            return;
+        }
+        insertAt(size, id);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    // Sorted, duplicate-free union of several lists
+    static int[] union(List<Postings> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0).toArray();
+        }
+        int total = 0;
+        for (Postings list : lists) {
+            total += list.size;
+        }
+        int[] all = new int[total];
+        int n = 0;
+        for (Postings list : lists) {
+            System.arraycopy(list.ids, 0, all, n, list.size);
+            n += list.size;
+        }
+        Arrays.sort(all);
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (kept == 0 || all[kept - 1] != all[i]) {
+                all[kept++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, kept);
+    }
+
+    boolean remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    // Keeps the first n entries of the sorted array that also occur here; returns the new count
+    int retainAll(int[] sorted, int n) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < n && from < size; i++) {
+            int pos = gallop(sorted[i], from);
+            if (pos >= 0) {
+                sorted[kept++] = sorted[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+        }
+        return kept;
+    }
+
+    // Exponential then binary search from a start position; same result contract as Arrays.binarySearch
+    private int gallop(int id, int from) {
+        int step = 1;
+        int hi = from;
+        while (hi < size && ids[hi] < id) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        return Arrays.binarySearch(ids, from, Math.min(hi + 1, size), id);
+    }
+
+    private void insertAt(int pos, int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+}
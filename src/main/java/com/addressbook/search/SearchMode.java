@@ -0,0 +1,25 @@
+package com.addressbook.search;
+
+/**
+ * How a search query is matched against contacts.
+ */
+public enum SearchMode {
+    // Case-insensitive substring of any field
+    CONTAINS("Contains"),
+    // First or last names within a small edit distance of each query word
+    FUZZY("Similar spelling"),
+    // First or last names with the same Cologne phonetic code as each query word
+    SOUNDS_LIKE("Sounds like");
+
+    private final String label;
+
+    SearchMode(String label) {
+        this.label = label;
+    }
+
+    // Shown in search mode pickers
+    @Override
+    public String toString() {
+        return label;
+    }
+}
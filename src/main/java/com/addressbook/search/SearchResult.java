@@ -0,0 +1,47 @@
+package com.addressbook.search;
+
+import com.addressbook.model.ContactDTO;
+
+import java.util.List;
+
+/**
+ * Contacts found by a search, plus what {@link ContactSearchIndex} needs to
+ * narrow the next substring search when the user keeps typing: the normalised
+ * query, the matching ids and the index version they were computed against.
+ */
+public final class SearchResult {
+    private final SearchMode mode;
+    private final String needle;
+    private final long version;
+    private final int[] ids;
+    private final List<ContactDTO> contacts;
+
+    SearchResult(SearchMode mode, String needle, long version, int[] ids, List<ContactDTO> contacts) {
+        this.mode = mode;
+        this.needle = needle;
+        this.version = version;
+        this.ids = ids;
+        this.contacts = contacts;
+    }
+
+    // Copies, ordered by cid; the list is the caller's to sort or modify
+    public List<ContactDTO> getContacts() {
+        return contacts;
+    }
+
+    public SearchMode getMode() {
+        return mode;
+    }
+
+    String getNeedle() {
+        return needle;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int[] getIds() {
+        return ids;
+    }
+}
@@ -0,0 +1,83 @@
+package com.addressbook.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from character trigrams to sorted posting lists of ids.
+ *
+ * Each id is listed once per distinct trigram of all texts indexed for it, so a
+ * query only has to intersect one posting list per query trigram. Candidates
+ * still need to be verified by the caller: containing every trigram of a query
+ * does not guarantee containing the query itself. Not thread-safe.
+ */
+final class TrigramIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    void add(int id, String... texts) {
+        for (long gram : trigrams(texts)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+    }
+
+    void remove(int id, String... texts) {
+        for (long gram : trigrams(texts)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    /**
+     * Returns the sorted ids whose texts contain every trigram of the query, or
+     * null when the query is too short to have a trigram.
+     */
+    int[] candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : trigrams(query)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Start from the rarest trigram so the working set only shrinks
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings smallest = lists.get(0);
+        int[] result = Arrays.copyOf(smallest.ids, smallest.size);
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            size = lists.get(i).retainAll(result, size);
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static Set<Long> trigrams(String... texts) {
+        Set<Long> grams = new HashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+        return grams;
+    }
+}
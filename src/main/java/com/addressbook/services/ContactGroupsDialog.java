@@ -0,0 +1,215 @@
+package com.addressbook.services;
+
+import com.addressbook.dao.ContactQuery;
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactGroup;
+import com.addressbook.search.ContactGroupIndex;
+import com.addressbook.utils.ModernDialog;
+import com.addressbook.utils.TaskRunner;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the contact groups with their sizes. Selecting several groups shows
+ * how many contacts are in all of them; members can be listed and whole filter
+ * results added to a group in one step.
+ */
+class ContactGroupsDialog extends JDialog {
+    // Members listed by "Show Members"
+    private static final int MEMBER_LIST_LIMIT = 1000;
+
+    private final ContactGroupIndex groupIndex;
+    private final DefaultListModel<ContactGroup> listModel = new DefaultListModel<>();
+    private final JList<ContactGroup> groupList = new JList<>(listModel);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Map<Integer, Integer> counts = new HashMap<>();
+    private TaskRunner.TaskHandle countTask;
+
+    ContactGroupsDialog(Component parent, ContactGroupIndex groupIndex) {
+        super(SwingUtilities.getWindowAncestor(parent), "Contact Groups", Dialog.ModalityType.APPLICATION_MODAL);
+        this.groupIndex = groupIndex;
+
+        groupList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        groupList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                ContactGroup group = (ContactGroup) value;
+                Integer count = counts.get(group.getGid());
+                String text = group.getName() + (count != null ? " (" + count + ")" : "");
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        groupList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                updateStatus();
+            }
+        });
+
+        JButton newButton = new JButton("New Group");
+        JButton deleteButton = new JButton("Delete Group");
+        JButton addButton = new JButton("Add Filtered Contacts");
+        JButton showButton = new JButton("Show Members");
+        JButton closeButton = new JButton("Close");
+        newButton.addActionListener(e -> createGroup());
+        deleteButton.addActionListener(e -> deleteGroup());
+        addButton.addActionListener(e -> addFilteredContacts());
+        showButton.addActionListener(e -> showMembers());
+        closeButton.addActionListener(e -> dispose());
+
+        JPanel buttons = new JPanel(new GridLayout(0, 1, 0, 5));
+        buttons.add(newButton);
+        buttons.add(deleteButton);
+        buttons.add(addButton);
+        buttons.add(showButton);
+        JPanel side = new JPanel(new BorderLayout());
+        side.add(buttons, BorderLayout.NORTH);
+        side.add(closeButton, BorderLayout.SOUTH);
+
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        content.add(new JScrollPane(groupList), BorderLayout.CENTER);
+        content.add(side, BorderLayout.EAST);
+        content.add(statusLabel, BorderLayout.SOUTH);
+        add(content);
+
+        setPreferredSize(new Dimension(560, 420));
+        pack();
+        setLocationRelativeTo(parent);
+        reload();
+    }
+
+    private void reload() {
+        Map<Integer, Integer> sizes = new HashMap<>();
+        TaskRunner.run(this, "Contact Groups", context -> {
+            List<ContactGroup> groups = groupIndex.getGroups();
+            for (ContactGroup group : groups) {
+                sizes.put(group.getGid(), groupIndex.count(group.getGid()));
+            }
+            return groups;
+        }, groups -> {
+            counts.clear();
+            counts.putAll(sizes);
+            listModel.clear();
+            groups.forEach(listModel::addElement);
+            updateStatus();
+        });
+    }
+
+    private void updateStatus() {
+        List<Integer> gids = selectedGids();
+        if (countTask != null) {
+            countTask.cancel();
+        }
+        if (gids.size() < 2) {
+            statusLabel.setText(listModel.size() + " groups. Select several groups to count the contacts in all of them.");
+            return;
+        }
+        countTask = TaskRunner.runQuietly(context -> groupIndex.intersectionCount(gids),
+            count -> statusLabel.setText(count + " contacts are in all " + gids.size() + " selected groups."),
+            error -> statusLabel.setText("Error: " + error.getMessage()));
+    }
+
+    private void createGroup() {
+        String name = JOptionPane.showInputDialog(this, "Group name:", "New Group", JOptionPane.PLAIN_MESSAGE);
+        if (name == null || name.trim().isEmpty()) {
+            return;
+        }
+        TaskRunner.run(this, "New Group", context -> groupIndex.createGroup(name.trim()), group -> reload());
+    }
+
+    private void deleteGroup() {
+        List<ContactGroup> selected = groupList.getSelectedValuesList();
+        if (selected.size() != 1) {
+            ModernDialog.showMessage(this, "Delete Group", "Select one group to delete.", ModernDialog.DialogType.INFO);
+            return;
+        }
+        ContactGroup group = selected.get(0);
+        if (!ModernDialog.showConfirm(this, "Delete Group",
+                "Delete the group '" + group.getName() + "'? Its contacts are kept.", ModernDialog.DialogType.WARNING)) {
+            return;
+        }
+        TaskRunner.run(this, "Delete Group", context -> {
+            groupIndex.deleteGroup(group.getGid());
+            return null;
+        }, ignored -> reload());
+    }
+
+    private void addFilteredContacts() {
+        List<ContactGroup> selected = groupList.getSelectedValuesList();
+        if (selected.size() != 1) {
+            ModernDialog.showMessage(this, "Add Contacts", "Select the group to add contacts to.", ModernDialog.DialogType.INFO);
+            return;
+        }
+        ContactGroup group = selected.get(0);
+
+        JTextField locationField = new JTextField();
+        JTextField domainField = new JTextField();
+        JTextField phoneField = new JTextField();
+        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5));
+        panel.add(new JLabel("Location starts with:"));
+        panel.add(locationField);
+        panel.add(new JLabel("Email domain starts with:"));
+        panel.add(domainField);
+        panel.add(new JLabel("Phone starts with:"));
+        panel.add(phoneField);
+        int result = JOptionPane.showConfirmDialog(this, panel, "Add Contacts to '" + group.getName() + "'",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        ContactQuery query = new ContactQuery()
+            .locationStartsWith(locationField.getText())
+            .emailDomainStartsWith(domainField.getText())
+            .phoneStartsWith(phoneField.getText());
+        if (query.getLocationPrefix() == null && query.getEmailDomainPrefix() == null && query.getPhonePrefix() == null
+                && !ModernDialog.showConfirm(this, "Add Contacts",
+                    "No filter given. Add all contacts to '" + group.getName() + "'?", ModernDialog.DialogType.WARNING)) {
+            return;
+        }
+        TaskRunner.run(this, "Add Contacts", context -> groupIndex.addMembers(group.getGid(), query), added -> {
+            ModernDialog.showMessage(this, "Add Contacts",
+                added + " contacts added to '" + group.getName() + "'.", ModernDialog.DialogType.SUCCESS);
+            reload();
+        });
+    }
+
+    private void showMembers() {
+        List<Integer> gids = selectedGids();
+        if (gids.isEmpty()) {
+            ModernDialog.showMessage(this, "Show Members", "Select one or more groups.", ModernDialog.DialogType.INFO);
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        groupList.getSelectedValuesList().forEach(group -> names.add(group.getName()));
+        TaskRunner.run(this, "Show Members", context -> {
+            int[] cids = groupIndex.intersection(gids);
+            int[] shown = cids.length > MEMBER_LIST_LIMIT ? Arrays.copyOf(cids, MEMBER_LIST_LIMIT) : cids;
+            StringBuilder message = new StringBuilder();
+            message.append(cids.length).append(" contact(s) in ").append(String.join(" AND ", names)).append(":\n\n");
+            for (ContactDTO contact : groupIndex.getContacts(shown)) {
+                message.append("• ").append(contact.getFirstName()).append(" ").append(contact.getLastName())
+                    .append(" (").append(contact.getEmail()).append(")\n");
+            }
+            if (cids.length > MEMBER_LIST_LIMIT) {
+                message.append("\nShowing the first ").append(MEMBER_LIST_LIMIT).append(" contacts only.\n");
+            }
+            return message.toString();
+        }, message -> ModernDialog.showScrollableText(this, "Group Members", message, 500, 500));
+    }
+
+    private List<Integer> selectedGids() {
+        List<Integer> gids = new ArrayList<>();
+        for (ContactGroup group : groupList.getSelectedValuesList()) {
+            gids.add(group.getGid());
+        }
+        return gids;
+    }
+}
@@ -1,16 +1,26 @@
 package com.addressbook.services;
 
 import com.addressbook.dao.ContactDAO;
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactMerge;
+import com.addressbook.search.ContactGroupIndex;
+import com.addressbook.search.DuplicateFinder;
+import com.addressbook.utils.TaskRunner;
 import javax.swing.*;
 import java.awt.*;
 import java.util.List;
 
 public class ContactService {
+    // Groups listed in the merge confirmation
+    private static final int MERGE_PREVIEW_LIMIT = 200;
+    
     private final ContactDAO contactDAO;
+    private final ContactGroupIndex groupIndex;
     
-    public ContactService() {
-        this.contactDAO = new ContactDAO();
+    public ContactService(DataAccessContext dataAccess) {
+        this.contactDAO = dataAccess.getContactDAO();
+        this.groupIndex = dataAccess.getGroupIndex();
     }
     
     public void addContact(Component parent) {
@@ -38,39 +48,39 @@ public class ContactService {
             JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
             
         if (result == JOptionPane.OK_OPTION) {
-            try {
-                ContactDTO contact = new ContactDTO();
-                contact.setFirstName(firstNameField.getText().trim());
-                contact.setLastName(lastNameField.getText().trim());
-                contact.setLocation(locationField.getText().trim());
-                contact.setPhone(phoneField.getText().trim());
-                contact.setEmail(emailField.getText().trim());
-                
-                if (contact.getFirstName().isEmpty() || contact.getLastName().isEmpty()) {
-                    JOptionPane.showMessageDialog(parent, 
-                        "First Name and Last Name are required!", 
-                        "Validation Error", 
-                        JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                
-                contactDAO.addContact(contact);
+            ContactDTO contact = new ContactDTO();
+            contact.setFirstName(firstNameField.getText().trim());
+            contact.setLastName(lastNameField.getText().trim());
+            contact.setLocation(locationField.getText().trim());
+            contact.setPhone(phoneField.getText().trim());
+            contact.setEmail(emailField.getText().trim());
+            
+            if (contact.getFirstName().isEmpty() || contact.getLastName().isEmpty()) {
                 JOptionPane.showMessageDialog(parent, 
+                    "First Name and Last Name are required!", 
+                    "Validation Error", 
+                    JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            TaskRunner.runQuietly(context -> contactDAO.addContact(contact),
+                cid -> JOptionPane.showMessageDialog(parent, 
                     "Contact added successfully!", 
                     "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                    
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(parent, 
+                    JOptionPane.INFORMATION_MESSAGE),
+                e -> JOptionPane.showMessageDialog(parent, 
                     "Error adding contact: " + e.getMessage(), 
                     "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.ERROR_MESSAGE));
         }
     }
     
     public void editContact(Component parent) {
-        List<ContactDTO> contacts = contactDAO.getAllContacts();
+        TaskRunner.run(parent, "Edit Contact", context -> contactDAO.getAllContacts(),
+            contacts -> editContact(parent, contacts));
+    }
+    
+    private void editContact(Component parent, List<ContactDTO> contacts) {
         if (contacts.isEmpty()) {
             JOptionPane.showMessageDialog(parent, 
                 "No contacts available to edit.", 
@@ -106,7 +116,11 @@ public class ContactService {
     }
     
     public void deleteContact(Component parent) {
-        List<ContactDTO> contacts = contactDAO.getAllContacts();
+        TaskRunner.run(parent, "Delete Contact", context -> contactDAO.getAllContacts(),
+            contacts -> deleteContact(parent, contacts));
+    }
+    
+    private void deleteContact(Component parent, List<ContactDTO> contacts) {
         if (contacts.isEmpty()) {
             JOptionPane.showMessageDialog(parent, 
                 "No contacts available to delete.", 
@@ -143,25 +157,29 @@ public class ContactService {
                     .orElse(null);
                     
                 if (contactToDelete != null) {
-                    try {
-                        contactDAO.deleteContact(contactToDelete.getCid());
-                        JOptionPane.showMessageDialog(parent, 
+                    TaskRunner.runQuietly(context -> {
+                            contactDAO.deleteContact(contactToDelete.getCid());
+                            return null;
+                        },
+                        ignored -> JOptionPane.showMessageDialog(parent, 
                             "Contact deleted successfully!", 
                             "Success", 
-                            JOptionPane.INFORMATION_MESSAGE);
-                    } catch (Exception e) {
-                        JOptionPane.showMessageDialog(parent, 
+                            JOptionPane.INFORMATION_MESSAGE),
+                        e -> JOptionPane.showMessageDialog(parent, 
                             "Error deleting contact: " + e.getMessage(), 
                             "Error", 
-                            JOptionPane.ERROR_MESSAGE);
-                    }
+                            JOptionPane.ERROR_MESSAGE));
                 }
             }
         }
     }
     
     public void duplicateContact(Component parent) {
-        List<ContactDTO> contacts = contactDAO.getAllContacts();
+        TaskRunner.run(parent, "Duplicate Contact", context -> contactDAO.getAllContacts(),
+            contacts -> duplicateContact(parent, contacts));
+    }
+    
+    private void duplicateContact(Component parent, List<ContactDTO> contacts) {
         if (contacts.isEmpty()) {
             JOptionPane.showMessageDialog(parent, 
                 "No contacts available to duplicate.", 
@@ -191,52 +209,84 @@ public class ContactService {
                 .orElse(null);
                 
             if (selectedContact != null) {
-                try {
-                    ContactDTO duplicate = new ContactDTO();
-                    duplicate.setFirstName(selectedContact.getFirstName() + " (Copy)");
-                    duplicate.setLastName(selectedContact.getLastName());
-                    duplicate.setLocation(selectedContact.getLocation());
-                    duplicate.setPhone(selectedContact.getPhone());
-                    duplicate.setEmail(selectedContact.getEmail());
-                    
-                    contactDAO.addContact(duplicate);
-                    JOptionPane.showMessageDialog(parent, 
+                ContactDTO duplicate = new ContactDTO();
+                duplicate.setFirstName(selectedContact.getFirstName() + " (Copy)");
+                duplicate.setLastName(selectedContact.getLastName());
+                duplicate.setLocation(selectedContact.getLocation());
+                duplicate.setPhone(selectedContact.getPhone());
+                duplicate.setEmail(selectedContact.getEmail());
+                
+                TaskRunner.runQuietly(context -> contactDAO.addContact(duplicate),
+                    cid -> JOptionPane.showMessageDialog(parent, 
                         "Contact duplicated successfully!", 
                         "Success", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(parent, 
+                        JOptionPane.INFORMATION_MESSAGE),
+                    e -> JOptionPane.showMessageDialog(parent, 
                         "Error duplicating contact: " + e.getMessage(), 
                         "Error", 
-                        JOptionPane.ERROR_MESSAGE);
-                }
+                        JOptionPane.ERROR_MESSAGE));
             }
         }
     }
     
-    public void mergeContacts(Component parent) {
-        List<ContactDTO> contacts = contactDAO.getAllContacts();
-        if (contacts.size() < 2) {
+    // onMerged runs on the EDT after a merge so the caller can refresh its table
+    public void mergeContacts(Component parent, Runnable onMerged) {
+        TaskRunner.run(parent, "Merge Contacts", context -> {
+            context.setMessage("Looking for duplicate contacts...");
+            return DuplicateFinder.findMerges(contactDAO.getAllContacts());
+        }, merges -> confirmMerge(parent, merges, onMerged));
+    }
+    
+    private void confirmMerge(Component parent, List<ContactMerge> merges, Runnable onMerged) {
+        if (merges.isEmpty()) {
             JOptionPane.showMessageDialog(parent, 
-                "At least 2 contacts are needed for merging.", 
+                "No duplicate contacts found.", 
                 "Merge Contacts", 
                 JOptionPane.INFORMATION_MESSAGE);
             return;
         }
         
-        JOptionPane.showMessageDialog(parent, 
-            "Merge functionality will be implemented in a future version.\n" +
-            "This feature will allow you to combine duplicate contacts.", 
-            "Merge Contacts", 
-            JOptionPane.INFORMATION_MESSAGE);
+        int removed = 0;
+        StringBuilder details = new StringBuilder();
+        for (ContactMerge merge : merges) {
+            removed += merge.getMembers().size() - 1;
+        }
+        for (ContactMerge merge : merges.subList(0, Math.min(merges.size(), MERGE_PREVIEW_LIMIT))) {
+            ContactDTO merged = merge.getMerged();
+            details.append(merged.getFirstName()).append(' ').append(merged.getLastName())
+                .append(" <").append(merged.getEmail()).append(">\n");
+            for (ContactDTO member : merge.getMembers()) {
+                details.append("    #").append(member.getCid()).append(": ")
+                    .append(member.getFirstName()).append(' ').append(member.getLastName()).append(", ")
+                    .append(member.getPhone()).append(", ").append(member.getEmail()).append('\n');
+            }
+        }
+        if (merges.size() > MERGE_PREVIEW_LIMIT) {
+            details.append("... and ").append(merges.size() - MERGE_PREVIEW_LIMIT).append(" more groups\n");
+        }
+        
+        JTextArea detailArea = new JTextArea(details.toString(), 15, 60);
+        detailArea.setEditable(false);
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.add(new JLabel("Merge " + merges.size() + " groups of duplicates? "
+            + removed + " contacts will be removed."), BorderLayout.NORTH);
+        panel.add(new JScrollPane(detailArea), BorderLayout.CENTER);
+        
+        int confirm = JOptionPane.showConfirmDialog(parent, panel, "Merge Contacts",
+            JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (confirm == JOptionPane.YES_OPTION) {
+            TaskRunner.run(parent, "Merge Contacts", context -> contactDAO.mergeContacts(merges), deleted -> {
+                onMerged.run();
+                JOptionPane.showMessageDialog(parent, 
+                    "Merged " + merges.size() + " groups, removed " + deleted + " contacts.", 
+                    "Success", 
+                    JOptionPane.INFORMATION_MESSAGE);
+            });
+        }
     }
     
     public void contactGroups(Component parent) {
-        JOptionPane.showMessageDialog(parent, 
-            "Contact Groups functionality will be implemented in a future version.\n" +
-            "This feature will allow you to organize contacts into categories.", 
-            "Contact Groups", 
-            JOptionPane.INFORMATION_MESSAGE);
+        new ContactGroupsDialog(parent, groupIndex).setVisible(true);
     }
     
     private void showEditDialog(Component parent, ContactDTO contact) {
@@ -263,33 +313,32 @@ public class ContactService {
             JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
             
         if (result == JOptionPane.OK_OPTION) {
-            try {
-                contact.setFirstName(firstNameField.getText().trim());
-                contact.setLastName(lastNameField.getText().trim());
-                contact.setLocation(locationField.getText().trim());
-                contact.setPhone(phoneField.getText().trim());
-                contact.setEmail(emailField.getText().trim());
-                
-                if (contact.getFirstName().isEmpty() || contact.getLastName().isEmpty()) {
-                    JOptionPane.showMessageDialog(parent, 
-                        "First Name and Last Name are required!", 
-                        "Validation Error", 
-                        JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                
-                contactDAO.updateContact(contact);
+            contact.setFirstName(firstNameField.getText().trim());
+            contact.setLastName(lastNameField.getText().trim());
+            contact.setLocation(locationField.getText().trim());
+            contact.setPhone(phoneField.getText().trim());
+            contact.setEmail(emailField.getText().trim());
+            
+            if (contact.getFirstName().isEmpty() || contact.getLastName().isEmpty()) {
                 JOptionPane.showMessageDialog(parent, 
+                    "First Name and Last Name are required!", 
+                    "Validation Error", 
+                    JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            TaskRunner.runQuietly(context -> {
+                    contactDAO.updateContact(contact);
+                    return null;
+                },
+                ignored -> JOptionPane.showMessageDialog(parent, 
                     "Contact updated successfully!", 
                     "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                    
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(parent, 
+                    JOptionPane.INFORMATION_MESSAGE),
+                e -> JOptionPane.showMessageDialog(parent, 
                     "Error updating contact: " + e.getMessage(), 
                     "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.ERROR_MESSAGE));
         }
     }
 } 
\ No newline at end of file
@@ -1,9 +1,10 @@
 package com.addressbook.services;
 
 import com.addressbook.dao.ContactDAO;
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.model.ContactDTO;
-import com.addressbook.model.ContactStatistics;
 import com.addressbook.utils.ModernDialog;
+import com.addressbook.utils.TaskRunner;
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDateTime;
@@ -13,14 +14,12 @@ import java.util.List;
 public class DateService {
 	private final ContactDAO contactDAO;
 	
-	public DateService() {
-		this.contactDAO = new ContactDAO();
+	public DateService(DataAccessContext dataAccess) {
+		this.contactDAO = dataAccess.getContactDAO();
 	}
 	
 	public void showContactStatistics(Component parent) {
-		try {
-			ContactStatistics stats = contactDAO.getContactStatistics();
-			
+		TaskRunner.run(parent, "Contact Statistics", context -> contactDAO.getContactStatistics(), stats -> {
 			StringBuilder message = new StringBuilder();
 			message.append("📊 Contact Statistics\n");
 			message.append("===================\n\n");
@@ -36,13 +35,7 @@ public class DateService {
 			}
 			
 			ModernDialog.showScrollableText(parent, "Contact Statistics", message.toString(), 500,500);
-			
-		} catch (Exception e) {
-			ModernDialog.showMessage(parent,
-				"Error",
-				"Error getting statistics: " + e.getMessage(),
-				ModernDialog.DialogType.ERROR);
-		}
+		});
 	}
 	
 	public void showRecentlyModifiedContacts(Component parent) {
@@ -63,9 +56,7 @@ public class DateService {
 				default -> 7;
 			};
 			
-			try {
-				List<ContactDTO> contacts = contactDAO.getRecentlyModifiedContacts(days);
-				
+			TaskRunner.run(parent, "Recently Modified Contacts", context -> contactDAO.getRecentlyModifiedContacts(days), contacts -> {
 				if (contacts.isEmpty()) {
 					ModernDialog.showMessage(parent,
 						"Recently Modified Contacts",
@@ -74,13 +65,7 @@ public class DateService {
 				} else {
 					showContactList(parent, contacts, "Recently Modified Contacts (Last " + days + " days)");
 				}
-				
-			} catch (Exception e) {
-				ModernDialog.showMessage(parent,
-					"Error",
-					"Error getting recently modified contacts: " + e.getMessage(),
-					ModernDialog.DialogType.ERROR);
-			}
+			});
 		}
 	}
 	
@@ -104,12 +89,20 @@ public class DateService {
 			JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 			
 		if (result == JOptionPane.OK_OPTION) {
+			LocalDateTime startDate;
+			LocalDateTime endDate;
 			try {
-				LocalDateTime startDate = LocalDateTime.parse(startDateField.getText().trim() + "T00:00:00");
-				LocalDateTime endDate = LocalDateTime.parse(endDateField.getText().trim() + "T23:59:59");
-				
-				List<ContactDTO> contacts = contactDAO.getContactsByDateRange(startDate, endDate);
-				
+				startDate = LocalDateTime.parse(startDateField.getText().trim() + "T00:00:00");
+				endDate = LocalDateTime.parse(endDateField.getText().trim() + "T23:59:59");
+			} catch (Exception e) {
+				ModernDialog.showMessage(parent,
+					"Error",
+					"Error getting contacts by date range: " + e.getMessage() + "\n\nPlease use format: YYYY-MM-DD",
+					ModernDialog.DialogType.ERROR);
+				return;
+			}
+			
+			TaskRunner.run(parent, "Contacts by Date Range", context -> contactDAO.getContactsByDateRange(startDate, endDate), contacts -> {
 				if (contacts.isEmpty()) {
 					ModernDialog.showMessage(parent,
 						"Contacts by Date Range",
@@ -118,26 +111,16 @@ public class DateService {
 				} else {
 					showContactList(parent, contacts, "Contacts Created: " + startDateField.getText() + " to " + endDateField.getText());
 				}
-				
-			} catch (Exception e) {
-				ModernDialog.showMessage(parent,
-					"Error",
-					"Error getting contacts by date range: " + e.getMessage() + "\n\nPlease use format: YYYY-MM-DD",
-					ModernDialog.DialogType.ERROR);
-			}
+			});
 		}
 	}
 	
 	public void showContactAgeAnalysis(Component parent) {
-		try {
+		TaskRunner.run(parent, "Contact Age Analysis", context -> {
 			List<ContactDTO> contacts = contactDAO.getAllContacts();
-			
+			context.checkCancelled();
 			if (contacts.isEmpty()) {
-				ModernDialog.showMessage(parent,
-					"Contact Age Analysis",
-					"No contacts to analyze.",
-					ModernDialog.DialogType.INFO);
-				return;
+				return null;
 			}
 			
 			long totalAge = 0;
@@ -168,15 +151,17 @@ public class DateService {
 			message.append("📅 Newest Contact: ").append(newestAge).append(" days\n\n");
 			message.append("🆕 Recent (< 30 days): ").append(recentContacts).append(" contacts\n");
 			message.append("📚 Old (> 1 year): ").append(oldContacts).append(" contacts\n");
-			
-			ModernDialog.showScrollableText(parent, "Contact Age Analysis", message.toString(), 400, 400);
-			
-		} catch (Exception e) {
-			ModernDialog.showMessage(parent,
-				"Error",
-				"Error analyzing contact ages: " + e.getMessage(),
-				ModernDialog.DialogType.ERROR);
-		}
+			return message.toString();
+		}, message -> {
+			if (message == null) {
+				ModernDialog.showMessage(parent,
+					"Contact Age Analysis",
+					"No contacts to analyze.",
+					ModernDialog.DialogType.INFO);
+				return;
+			}
+			ModernDialog.showScrollableText(parent, "Contact Age Analysis", message, 400, 400);
+		});
 	}
 	
 	private void showContactList(Component parent, List<ContactDTO> contacts, String title) {
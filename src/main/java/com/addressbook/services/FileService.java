@@ -1,13 +1,25 @@
 package com.addressbook.services;
 
 import com.addressbook.dao.ContactDAO;
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.model.ContactDTO;
+import com.addressbook.search.DuplicateIndex;
+import com.addressbook.utils.CsvReader;
+import com.addressbook.utils.CsvWriter;
 import com.addressbook.utils.ModernDialog;
+import com.addressbook.utils.TaskRunner;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 // Simple class to hold import results
 class ImportResult {
@@ -23,10 +35,14 @@ class ImportResult {
 }
 
 public class FileService {
+	private static final int EXPORT_BUFFER_SIZE = 256 * 1024;
+	
 	private final ContactDAO contactDAO;
+	private final DuplicateIndex duplicateIndex;
 	
-	public FileService() {
-		this.contactDAO = new ContactDAO();
+	public FileService(DataAccessContext dataAccess) {
+		this.contactDAO = dataAccess.getContactDAO();
+		this.duplicateIndex = dataAccess.getDuplicateIndex();
 	}
 	
 	public void createNewContact(Component parent) {
@@ -46,8 +62,7 @@ public class FileService {
 		int result = fileChooser.showOpenDialog(parent);
 		if (result == JFileChooser.APPROVE_OPTION) {
 			File selectedFile = fileChooser.getSelectedFile();
-			try {
-				ImportResult importResult = importFromFile(selectedFile);
+			TaskRunner.run(parent, "Import Contacts", context -> importFromFile(selectedFile, context), importResult -> {
 				String message = String.format(
 					"Import completed from %s:\n\n" +
 					"✅ Imported: %d contacts\n" +
@@ -59,12 +74,7 @@ public class FileService {
 					importResult.errorCount
 				);
 				ModernDialog.showMessage(parent, "Import Summary", message, ModernDialog.DialogType.SUCCESS);
-			} catch (Exception e) {
-				ModernDialog.showMessage(parent,
-					"Import Error",
-					"Error importing contacts: " + e.getMessage(),
-					ModernDialog.DialogType.ERROR);
-			}
+			});
 		}
 	}
 	
@@ -77,45 +87,51 @@ public class FileService {
 		int result = fileChooser.showSaveDialog(parent);
 		if (result == JFileChooser.APPROVE_OPTION) {
 			File selectedFile = fileChooser.getSelectedFile();
-			try {
-				exportToFile(selectedFile);
-				ModernDialog.showMessage(parent,
-					"Export Success",
-					"Contacts exported successfully to " + selectedFile.getName(),
-					ModernDialog.DialogType.SUCCESS);
-			} catch (Exception e) {
-				ModernDialog.showMessage(parent,
-					"Export Error",
-					"Error exporting contacts: " + e.getMessage(),
-					ModernDialog.DialogType.ERROR);
-			}
+			TaskRunner.run(parent, "Export Contacts", context -> {
+				exportToFile(selectedFile, context);
+				return selectedFile;
+			}, exported -> ModernDialog.showMessage(parent,
+				"Export Success",
+				"Contacts exported successfully to " + exported.getName(),
+				ModernDialog.DialogType.SUCCESS));
 		}
 	}
 	
 	public void printContacts(Component parent) {
-		List<ContactDTO> contacts = contactDAO.getAllContacts();
-		if (contacts.isEmpty()) {
-			ModernDialog.showMessage(parent,
-				"Print",
-				"No contacts to print.",
-				ModernDialog.DialogType.INFO);
-			return;
-		}
-		
-		// Create a simple text representation for printing
-		StringBuilder printContent = new StringBuilder();
-		printContent.append("Address Book - Contact List\n");
-		printContent.append("==========================\n\n");
-		
-		for (ContactDTO contact : contacts) {
-			printContent.append("Name: ").append(contact.getFirstName()).append(" ").append(contact.getLastName()).append("\n");
-			printContent.append("Location: ").append(contact.getLocation()).append("\n");
-			printContent.append("Phone: ").append(contact.getPhone()).append("\n");
-			printContent.append("Email: ").append(contact.getEmail()).append("\n");
-			printContent.append("------------------------\n");
-		}
-		
-		JTextArea textArea = new JTextArea(printContent.toString());
+		TaskRunner.run(parent, "Print Contacts", context -> {
+			List<ContactDTO> contacts = contactDAO.getAllContacts();
+			if (contacts.isEmpty()) {
+				return null;
+			}
+			
+			// Create a simple text representation for printing
+			StringBuilder printContent = new StringBuilder();
+			printContent.append("Address Book - Contact List\n");
+			printContent.append("==========================\n\n");
+			
+			for (ContactDTO contact : contacts) {
+				context.checkCancelled();
+				printContent.append("Name: ").append(contact.getFirstName()).append(" ").append(contact.getLastName()).append("\n");
+				printContent.append("Location: ").append(contact.getLocation()).append("\n");
+				printContent.append("Phone: ").append(contact.getPhone()).append("\n");
+				printContent.append("Email: ").append(contact.getEmail()).append("\n");
+				printContent.append("------------------------\n");
+			}
+			return printContent.toString();
+		}, printContent -> {
+			if (printContent == null) {
+				ModernDialog.showMessage(parent,
+					"Print",
+					"No contacts to print.",
+					ModernDialog.DialogType.INFO);
+				return;
+			}
+			showPrintPreview(parent, printContent);
+		});
+	}
+	
+	private void showPrintPreview(Component parent, String printContent) {
+		JTextArea textArea = new JTextArea(printContent);
 		textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
 		textArea.setEditable(false);
 		
@@ -136,57 +152,64 @@ public class FileService {
 		}
 	}
 	
-	private ImportResult importFromFile(File file) throws IOException {
-		List<ContactDTO> existingContacts = contactDAO.getAllContacts();
+	private ImportResult importFromFile(File file, TaskRunner.TaskContext context) throws IOException {
+		context.setMessage("Loading existing contacts...");
+		duplicateIndex.refresh();
+		// importedKeys covers rows still buffered in the current batch, which the index has not seen yet
+		Set<String> importedKeys = new HashSet<>();
 		int importedCount = 0;
 		int skippedCount = 0;
 		int errorCount = 0;
+		long totalBytes = file.length();
+		int batchSize = contactDAO.getBatchSize();
+		List<ContactDTO> batch = new ArrayList<>(batchSize);
 		
-		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-			String line;
+		context.setMessage("Importing " + file.getName() + "...");
+		try (CountingInputStream counter = new CountingInputStream(new FileInputStream(file));
+			 CsvReader reader = new CsvReader(CsvReader.open(counter, StandardCharsets.UTF_8))) {
+			String[] record = reader.readRecord();
 			// Skip header if it exists
-			line = reader.readLine();
-			if (line != null && line.toLowerCase().contains("firstname")) {
-				line = reader.readLine(); // Skip header
+			if (record != null && isHeader(record)) {
+				record = reader.readRecord();
 			}
 			
-			while (line != null) {
-				String[] parts = line.split(",");
-				if (parts.length >= 4) {
+			while (record != null) {
+				context.checkCancelled();
+				context.setProgress(counter.getCount(), totalBytes);
+				if (record.length >= 4) {
 					ContactDTO contact = new ContactDTO();
-					contact.setFirstName(parts[0].trim());
-					contact.setLastName(parts[1].trim());
-					contact.setLocation(parts[2].trim());
-					contact.setPhone(parts[3].trim());
-					if (parts.length > 4) {
-						contact.setEmail(parts[4].trim());
+					contact.setFirstName(record[0].trim());
+					contact.setLastName(record[1].trim());
+					contact.setLocation(record[2].trim());
+					contact.setPhone(record[3].trim());
+					if (record.length > 4) {
+						contact.setEmail(record[4].trim());
 					}
 					
-					// Check if contact already exists
-					boolean contactExists = existingContacts.stream()
-						.anyMatch(existing -> 
-							existing.getFirstName().equalsIgnoreCase(contact.getFirstName()) &&
-							existing.getLastName().equalsIgnoreCase(contact.getLastName()) &&
-							existing.getEmail().equalsIgnoreCase(contact.getEmail()));
-					
-					if (contactExists) {
+					if (contact.getFirstName().isEmpty() || contact.getLastName().isEmpty()
+							|| contact.getEmail() == null || contact.getEmail().isEmpty()) {
+						// The database would reject these rows, so don't send them
+						errorCount++;
+					} else if (isDuplicate(contact, importedKeys)) {
 						skippedCount++;
-						System.out.println("Skipped duplicate contact: " + contact.getFirstName() + " " + contact.getLastName());
 					} else {
-						try {
-							contactDAO.addContact(contact);
-							importedCount++;
-							// Add to existing contacts list to check against future duplicates
-							existingContacts.add(contact);
-						} catch (Exception e) {
-							errorCount++;
-							System.err.println("Error importing contact " + contact.getFirstName() + " " + contact.getLastName() + ": " + e.getMessage());
+						batch.add(contact);
+						if (batch.size() == batchSize) {
+							int inserted = contactDAO.addContactsBatch(batch);
+							importedCount += inserted;
+							errorCount += batch.size() - inserted;
+							batch.clear();
 						}
 					}
 				}
-				line = reader.readLine();
+				record = reader.readRecord();
 			}
 		}
+		if (!batch.isEmpty()) {
+			int inserted = contactDAO.addContactsBatch(batch);
+			importedCount += inserted;
+			errorCount += batch.size() - inserted;
+		}
 		
 		System.out.println("Import Summary from " + file.getName() + ":");
 		System.out.println("  - Imported: " + importedCount + " contacts");
@@ -196,24 +219,74 @@ public class FileService {
 		return new ImportResult(importedCount, skippedCount, errorCount);
 	}
 	
-	private void exportToFile(File file) throws IOException {
-		List<ContactDTO> contacts = contactDAO.getAllContacts();
+	private static boolean isHeader(String[] record) {
+		for (String field : record) {
+			if (field.trim().equalsIgnoreCase("firstname")) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private boolean isDuplicate(ContactDTO contact, Set<String> importedKeys) {
+		String key = DuplicateIndex.key(contact);
+		return duplicateIndex.containsKey(key) || !importedKeys.add(key);
+	}
+	
+	// Streams rows from the database straight into the file, so memory use does not grow with the table
+	private void exportToFile(File file, TaskRunner.TaskContext context) throws Exception {
+		long total = contactDAO.estimateContactCount();
+		long[] written = {0};
 		
-		try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+			 CsvWriter writer = new CsvWriter(new BufferedWriter(
+				Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), EXPORT_BUFFER_SIZE), EXPORT_BUFFER_SIZE))) {
 			// Write header
-			writer.println("FirstName,LastName,Location,Phone,Email");
+			writer.writeRecord("FirstName", "LastName", "Location", "Phone", "Email");
 			
 			// Write contacts
-			for (ContactDTO contact : contacts) {
-				writer.printf("%s,%s,%s,%s,%s%n",
+			contactDAO.forEachContact(contact -> {
+				context.checkCancelled();
+				context.setProgress(++written[0], total);
+				writer.writeRecord(
 					contact.getFirstName(),
 					contact.getLastName(),
 					contact.getLocation(),
 					contact.getPhone(),
 					contact.getEmail());
+			});
+		}
+	}
+	
+	// Tracks how far into the file the reader is, for progress reporting
+	private static final class CountingInputStream extends FilterInputStream {
+		private long count;
+		
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+		
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count++;
 			}
+			return b;
 		}
 		
-
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int n = super.read(buffer, offset, length);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+		
+		long getCount() {
+			return count;
+		}
 	}
-}
\ No newline at end of file
+}
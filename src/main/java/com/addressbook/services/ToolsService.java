@@ -1,43 +1,91 @@
 package com.addressbook.services;
 
+import com.addressbook.dao.BackupDAO;
+import com.addressbook.dao.ContactColumn;
 import com.addressbook.dao.ContactDAO;
+import com.addressbook.dao.ContactProjection;
+import com.addressbook.dao.ContactQuery;
+import com.addressbook.dao.DataAccessContext;
 import com.addressbook.model.ContactDTO;
+import com.addressbook.search.ContactSearchIndex;
+import com.addressbook.search.FuzzyNameIndex;
+import com.addressbook.search.PhoneticNameIndex;
+import com.addressbook.search.SearchMode;
+import com.addressbook.utils.BackupInfo;
+import com.addressbook.utils.BackupReader;
+import com.addressbook.utils.BackupWriter;
 import com.addressbook.utils.ModernDialog;
+import com.addressbook.utils.TaskRunner;
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ToolsService {
+	// Rows shown in the sort and filter result dialogs
+	private static final int RESULT_LIMIT = 1000;
+	private static final String BACKUP_EXTENSION = "abk";
+	private static final FileNameExtensionFilter BACKUP_FILTER =
+		new FileNameExtensionFilter("Address Book Backups (*.abk)", BACKUP_EXTENSION);
+	private static final int BACKUP_BUFFER_SIZE = 256 * 1024;
+	
+	private final DataAccessContext dataAccess;
 	private final ContactDAO contactDAO;
+	private final BackupDAO backupDAO;
+	private final ContactSearchIndex searchIndex;
+	private final FuzzyNameIndex fuzzyIndex;
+	private final PhoneticNameIndex phoneticIndex;
 	
-	public ToolsService() {
-		this.contactDAO = new ContactDAO();
+	public ToolsService(DataAccessContext dataAccess) {
+		this.dataAccess = dataAccess;
+		this.contactDAO = dataAccess.getContactDAO();
+		this.backupDAO = dataAccess.getBackupDAO();
+		this.searchIndex = dataAccess.getSearchIndex();
+		this.fuzzyIndex = dataAccess.getFuzzyIndex();
+		this.phoneticIndex = dataAccess.getPhoneticIndex();
 	}
 	
 	public void searchAction(Component parent) {
-		String searchTerm = JOptionPane.showInputDialog(parent,
-			"Enter search term:",
-			"Search Contacts",
-			JOptionPane.PLAIN_MESSAGE);
+		JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+		JTextField searchField = new JTextField();
+		JComboBox<SearchMode> modeBox = new JComboBox<>(SearchMode.values());
+		panel.add(new JLabel("Enter search term:"));
+		panel.add(searchField);
+		panel.add(new JLabel("Match:"));
+		panel.add(modeBox);
+		
+		int result = JOptionPane.showConfirmDialog(parent, panel, "Search Contacts",
+			JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+		String searchTerm = searchField.getText();
 			
-		if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-			List<ContactDTO> contacts = contactDAO.getAllContacts();
-			List<ContactDTO> results = contacts.stream()
-				.filter(c -> c.getFirstName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-						   c.getLastName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-						   c.getEmail().toLowerCase().contains(searchTerm.toLowerCase()) ||
-						   c.getPhone().contains(searchTerm) ||
-						   c.getLocation().toLowerCase().contains(searchTerm.toLowerCase()))
-				.toList();
-				
-			if (results.isEmpty()) {
-				ModernDialog.showMessage(parent,
-					"Search Results",
-					"No contacts found matching '" + searchTerm + "'",
-					ModernDialog.DialogType.INFO);
-			} else {
-				showSearchResults(parent, results, searchTerm);
-			}
+		if (result == JOptionPane.OK_OPTION && !searchTerm.trim().isEmpty()) {
+			SearchMode mode = (SearchMode) modeBox.getSelectedItem();
+			TaskRunner.run(parent, "Search Contacts", context -> switch (mode) {
+				case CONTAINS -> searchIndex.search(searchTerm);
+				case FUZZY -> fuzzyIndex.search(searchTerm).getContacts();
+				case SOUNDS_LIKE -> phoneticIndex.search(searchTerm).getContacts();
+			}, results -> {
+				if (results.isEmpty()) {
+					ModernDialog.showMessage(parent,
+						"Search Results",
+						"No contacts found matching '" + searchTerm + "'",
+						ModernDialog.DialogType.INFO);
+				} else {
+					showSearchResults(parent, results, searchTerm);
+				}
+			});
 		}
 	}
 	
@@ -52,27 +100,16 @@ public class ToolsService {
 			sortOptions[0]);
 			
 		if (selected != null) {
-			List<ContactDTO> contacts = contactDAO.getAllContacts();
-			List<ContactDTO> sorted = switch (selected) {
-				case "First Name" -> contacts.stream()
-					.sorted((c1, c2) -> c1.getFirstName().compareToIgnoreCase(c2.getFirstName()))
-					.toList();
-				case "Last Name" -> contacts.stream()
-					.sorted((c1, c2) -> c1.getLastName().compareToIgnoreCase(c2.getLastName()))
-					.toList();
-				case "Location" -> contacts.stream()
-					.sorted((c1, c2) -> c1.getLocation().compareToIgnoreCase(c2.getLocation()))
-					.toList();
-				case "Phone" -> contacts.stream()
-					.sorted((c1, c2) -> c1.getPhone().compareTo(c2.getPhone()))
-					.toList();
-				case "Email" -> contacts.stream()
-					.sorted((c1, c2) -> c1.getEmail().compareToIgnoreCase(c2.getEmail()))
-					.toList();
-				default -> contacts;
+			ContactColumn column = switch (selected) {
+				case "Last Name" -> ContactColumn.LAST_NAME;
+				case "Location" -> ContactColumn.LOCATION;
+				case "Phone" -> ContactColumn.PHONE;
+				case "Email" -> ContactColumn.EMAIL;
+				default -> ContactColumn.FIRST_NAME;
 			};
-			
-			showSortResults(parent, sorted, selected);
+			ContactQuery query = resultQuery().orderBy(column, true);
+			TaskRunner.run(parent, "Sort Contacts", context -> contactDAO.findContacts(query),
+				sorted -> showSortResults(parent, sorted, selected));
 		}
 	}
 	
@@ -87,59 +124,173 @@ public class ToolsService {
 			filterOptions[0]);
 			
 		if (selected != null) {
+			String prompt = switch (selected) {
+				case "By Email Domain" -> "Email domain starts with (e.g. example.de):";
+				case "By Phone Prefix" -> "Phone number starts with (e.g. +49):";
+				default -> "Location starts with:";
+			};
 			String filterValue = JOptionPane.showInputDialog(parent,
-				"Enter filter value:",
+				prompt,
 				"Filter Value",
 				JOptionPane.PLAIN_MESSAGE);
 				
 			if (filterValue != null && !filterValue.trim().isEmpty()) {
-				List<ContactDTO> contacts = contactDAO.getAllContacts();
-				List<ContactDTO> filtered = switch (selected) {
-					case "By Location" -> contacts.stream()
-						.filter(c -> c.getLocation().toLowerCase().contains(filterValue.toLowerCase()))
-						.toList();
-					case "By Email Domain" -> contacts.stream()
-						.filter(c -> c.getEmail().toLowerCase().contains(filterValue.toLowerCase()))
-						.toList();
-					case "By Phone Prefix" -> contacts.stream()
-						.filter(c -> c.getPhone().startsWith(filterValue))
-						.toList();
-					default -> contacts;
-				};
-				
-				if (filtered.isEmpty()) {
-					ModernDialog.showMessage(parent,
-						"Filter Results",
-						"No contacts found matching the filter criteria.",
-						ModernDialog.DialogType.INFO);
-				} else {
-					showFilterResults(parent, filtered, selected, filterValue);
+				ContactQuery query = resultQuery();
+				switch (selected) {
+					case "By Email Domain" -> query.emailDomainStartsWith(filterValue).orderBy(ContactColumn.EMAIL, true);
+					case "By Phone Prefix" -> query.phoneStartsWith(filterValue).orderBy(ContactColumn.PHONE, true);
+					default -> query.locationStartsWith(filterValue).orderBy(ContactColumn.LOCATION, true);
 				}
+				TaskRunner.run(parent, "Filter Contacts", context -> contactDAO.findContacts(query), filtered -> {
+					if (filtered.isEmpty()) {
+						ModernDialog.showMessage(parent,
+							"Filter Results",
+							"No contacts found matching the filter criteria.",
+							ModernDialog.DialogType.INFO);
+					} else {
+						showFilterResults(parent, filtered, selected, filterValue);
+					}
+				});
 			}
 		}
 	}
 	
+	// The result dialogs list names and emails only, and at most RESULT_LIMIT of them;
+	// one extra row tells whether the list was cut off
+	private static ContactQuery resultQuery() {
+		return new ContactQuery()
+			.select(ContactProjection.NAME_EMAIL)
+			.page(0, RESULT_LIMIT + 1);
+	}
+	
 	public void backupAction(Component parent) {
-		List<ContactDTO> contacts = contactDAO.getAllContacts();
-		if (contacts.isEmpty()) {
-			ModernDialog.showMessage(parent,
-				"Backup",
-				"No contacts to backup.",
-				ModernDialog.DialogType.INFO);
+		Object[] options = {"Full Backup", "Incremental Backup", "Cancel"};
+		int choice = JOptionPane.showOptionDialog(parent,
+			"Back up all contacts, or only the changes since the last backup?\n" +
+			"An incremental backup is restored together with the backups before it.",
+			"Backup", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+		if (choice != 0 && choice != 1) {
 			return;
 		}
+		boolean incremental = choice == 1;
 		
-		ModernDialog.showMessage(parent,
-			"Backup",
-			"Backup functionality will be implemented in a future version.\nThis will create a backup file of all contacts.",
-			ModernDialog.DialogType.INFO);
+		JFileChooser fileChooser = new JFileChooser();
+		fileChooser.setDialogTitle(incremental ? "Incremental Backup" : "Backup");
+		fileChooser.setFileFilter(BACKUP_FILTER);
+		fileChooser.setSelectedFile(new File("addressbook-" + LocalDate.now() + (incremental ? "-incremental." : ".") + BACKUP_EXTENSION));
+		if (fileChooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File selected = fileChooser.getSelectedFile();
+		File file = selected.getName().contains(".") ? selected : new File(selected.getPath() + "." + BACKUP_EXTENSION);
+		
+		TaskRunner.run(parent, "Backup", context -> {
+			BackupInfo info = incremental ? backupDAO.startIncrementalBackup() : backupDAO.startFullBackup();
+			if (info == null) {
+				return null;
+			}
+			// An incremental backup's size is not known up front
+			long total = incremental ? -1 : contactDAO.estimateContactCount();
+			context.setMessage("Writing backup...");
+			// Write next to the target and move it into place, so a failed backup never replaces a good one
+			Path target = file.toPath();
+			Path partial = target.resolveSibling(target.getFileName() + ".partial");
+			try {
+				long records;
+				try (BackupWriter writer = new BackupWriter(new BufferedOutputStream(
+						Files.newOutputStream(partial), BACKUP_BUFFER_SIZE), info)) {
+					records = backupDAO.backup(writer, contacts -> {
+						context.checkCancelled();
+						context.setProgress(contacts, total);
+					});
+				}
+				Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+				backupDAO.recordBackup(info);
+				return records;
+			} finally {
+				Files.deleteIfExists(partial);
+			}
+		}, records -> {
+			if (records == null) {
+				ModernDialog.showMessage(parent,
+					"Backup",
+					"There is no earlier backup to build on.\nTake a full backup first.",
+					ModernDialog.DialogType.INFO);
+				return;
+			}
+			ModernDialog.showMessage(parent,
+				"Backup",
+				"Backup of " + records + " records written to " + file.getName() + ".",
+				ModernDialog.DialogType.SUCCESS);
+		});
 	}
 	
-	public void restoreAction(Component parent) {
-		ModernDialog.showMessage(parent,
+	// onRestored runs on the EDT after a restore so the caller can refresh its table
+	public void restoreAction(Component parent, Runnable onRestored) {
+		JFileChooser fileChooser = new JFileChooser();
+		fileChooser.setDialogTitle("Restore: select a full backup and its incremental backups");
+		fileChooser.setFileFilter(BACKUP_FILTER);
+		fileChooser.setMultiSelectionEnabled(true);
+		if (fileChooser.showOpenDialog(parent) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File[] files = fileChooser.getSelectedFiles();
+		if (files.length == 0) {
+			return;
+		}
+		if (!ModernDialog.showConfirm(parent,
 			"Restore",
-			"Restore functionality will be implemented in a future version.\nThis will restore contacts from a backup file.",
-			ModernDialog.DialogType.INFO);
+			"Restoring " + (files.length == 1 ? files[0].getName() : files.length + " backups") +
+			" replaces ALL contacts and groups with the backup's.\n" +
+			"Changes made since the backup are lost. Continue?",
+			ModernDialog.DialogType.WARNING)) {
+			return;
+		}
+		
+		TaskRunner.run(parent, "Restore", context -> {
+			context.setMessage("Restoring backup...");
+			List<FileChannel> channels = new ArrayList<>();
+			List<BackupReader> readers = new ArrayList<>();
+			try {
+				long size = 0;
+				for (File file : files) {
+					FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+					channels.add(channel);
+					size += channel.size();
+					readers.add(new BackupReader(new BufferedInputStream(Channels.newInputStream(channel), BACKUP_BUFFER_SIZE)));
+				}
+				long total = size;
+				long contacts = backupDAO.restore(readers, records -> {
+					context.checkCancelled();
+					long read = 0;
+					for (FileChannel channel : channels) {
+						try {
+							read += channel.position();
+						} catch (IOException e) {
+							// Progress only
+						}
+					}
+					context.setProgress(read, total);
+				});
+				context.setMessage("Reloading contacts...");
+				dataAccess.reloadCaches();
+				return contacts;
+			} finally {
+				for (BackupReader reader : readers) {
+					reader.close();
+				}
+				// Channels of files that turned out not to be backups
+				for (FileChannel channel : channels) {
+					channel.close();
+				}
+			}
+		}, contacts -> {
+			onRestored.run();
+			ModernDialog.showMessage(parent,
+				"Restore",
+				contacts + " contacts restored.",
+				ModernDialog.DialogType.SUCCESS);
+		});
 	}
 	
 	public void settingsAction(Component parent) {
@@ -165,10 +316,11 @@ public class ToolsService {
 		StringBuilder message = new StringBuilder();
 		message.append("Contacts sorted by ").append(sortBy).append(":\n\n");
 		
-		for (ContactDTO contact : sorted) {
+		for (ContactDTO contact : sorted.subList(0, Math.min(sorted.size(), RESULT_LIMIT))) {
 			message.append("• ").append(contact.getFirstName()).append(" ").append(contact.getLastName())
 				   .append(" (").append(contact.getEmail()).append(")\n");
 		}
+		appendTruncationNote(message, sorted);
 		
 		ModernDialog.showScrollableText(parent, "Sort Results", message.toString(), 500,500);
 	}
@@ -177,11 +329,18 @@ public class ToolsService {
 		StringBuilder message = new StringBuilder();
 		message.append("Contacts filtered by ").append(filterBy).append(" = '").append(filterValue).append("':\n\n");
 		
-		for (ContactDTO contact : filtered) {
+		for (ContactDTO contact : filtered.subList(0, Math.min(filtered.size(), RESULT_LIMIT))) {
 			message.append("• ").append(contact.getFirstName()).append(" ").append(contact.getLastName())
 				   .append(" (").append(contact.getEmail()).append(")\n");
 		}
+		appendTruncationNote(message, filtered);
 		
 		ModernDialog.showScrollableText(parent, "Filter Results", message.toString(), 500,500);
 	}
-} 
\ No newline at end of file
+	
+	private static void appendTruncationNote(StringBuilder message, List<ContactDTO> results) {
+		if (results.size() > RESULT_LIMIT) {
+			message.append("\nShowing the first ").append(RESULT_LIMIT).append(" contacts only.\n");
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.addressbook.utils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identifies a backup file and its place in a backup chain.
+ *
+ * A full backup starts a chain. An incremental backup names its parent and
+ * holds the contacts changed or deleted at or after {@code since}; restoring
+ * the full backup and then each incremental one in turn rebuilds the state at
+ * the last backup's watermark.
+ */
+public final class BackupInfo {
+    private final long id;
+    // 0 for a full backup
+    private final long parentId;
+    // null for a full backup
+    private final LocalDateTime since;
+    // Database time at which the backup started
+    private final LocalDateTime watermark;
+
+    BackupInfo(long id, long parentId, LocalDateTime since, LocalDateTime watermark) {
+        this.id = id;
+        this.parentId = parentId;
+        this.since = since;
+        this.watermark = watermark;
+    }
+
+    public static BackupInfo full(LocalDateTime watermark) {
+        return new BackupInfo(newId(), 0, null, watermark);
+    }
+
+    public static BackupInfo incremental(long parentId, LocalDateTime since, LocalDateTime watermark) {
+        return new BackupInfo(newId(), parentId, since, watermark);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getParentId() {
+        return parentId;
+    }
+
+    public LocalDateTime getSince() {
+        return since;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public boolean isFull() {
+        return parentId == 0;
+    }
+
+    private static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+}
@@ -0,0 +1,273 @@
+package com.addressbook.utils;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactGroup;
+import com.addressbook.model.GroupMembership;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Streaming reader for the backup format written by {@link BackupWriter}.
+ *
+ * Blocks are inflated one at a time and their checksums verified before any of
+ * their records are returned, so memory use does not depend on the file size.
+ * Call {@link #peek()} for the next record's type, then the matching read
+ * method.
+ */
+public class BackupReader implements Closeable {
+    public static final int END = 0;
+    public static final int CONTACT = 1;
+    public static final int GROUP = 2;
+    public static final int MEMBERSHIP = 3;
+    public static final int SETTING = 4;
+    public static final int TOMBSTONE = 5;
+    public static final int MEMBERSHIP_TOMBSTONE = 6;
+
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+    private final BackupInfo info;
+    private final int version;
+    private byte[] compressed = new byte[0];
+    private byte[] block = new byte[0];
+    private int position;
+    private int limit;
+    private int blocks;
+    private boolean ended;
+
+    public BackupReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        byte[] magic = new byte[BackupWriter.MAGIC.length];
+        try {
+            this.in.readFully(magic);
+        } catch (EOFException e) {
+            throw new IOException("Not a backup file");
+        }
+        if (!Arrays.equals(magic, BackupWriter.MAGIC)) {
+            throw new IOException("Not a backup file");
+        }
+        version = this.in.readInt();
+        if (version == 1) {
+            // Version 1 files are full backups without an id
+            info = new BackupInfo(0, 0, null, null);
+        } else if (version == 2 || version == BackupWriter.VERSION) {
+            info = new BackupInfo(this.in.readLong(), this.in.readLong(),
+                    fromMillis(this.in.readLong()), fromMillis(this.in.readLong()));
+        } else {
+            throw new IOException("Unsupported backup version " + version);
+        }
+    }
+
+    public BackupInfo getInfo() {
+        return info;
+    }
+
+    /**
+     * Format version of the file. Before version 3, memberships carry no
+     * addedAt and every backup, incremental or not, holds all of them.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the type of the next record without consuming it, or END after
+     * the last one.
+     */
+    public int peek() throws IOException {
+        while (position == limit) {
+            if (ended || !readBlock()) {
+                return END;
+            }
+        }
+        return block[position];
+    }
+
+    // Reads the next record, which must be a contact, into the given DTO
+    public ContactDTO readContact(ContactDTO contact) throws IOException {
+        expect(CONTACT);
+        contact.setCid(readVarInt());
+        contact.setFirstName(readString());
+        contact.setLastName(readString());
+        contact.setLocation(readString());
+        contact.setPhone(readString());
+        contact.setEmail(readString());
+        contact.setCreatedAt(readTimestamp());
+        contact.setUpdatedAt(readTimestamp());
+        return contact;
+    }
+
+    // Reads the next record, which must be a tombstone, and returns the deleted cid
+    public int readTombstone() throws IOException {
+        expect(TOMBSTONE);
+        return readVarInt();
+    }
+
+    /**
+     * Skips the next record, whatever its type.
+     */
+    public void skip() throws IOException {
+        switch (peek()) {
+            case CONTACT -> readContact(new ContactDTO());
+            case TOMBSTONE -> readTombstone();
+            case GROUP -> readGroup();
+            case MEMBERSHIP -> readMembership();
+            case MEMBERSHIP_TOMBSTONE -> readMembershipTombstone();
+            case SETTING -> readSetting();
+            case END -> throw new IOException("No record left to skip");
+            default -> throw new IOException("Unknown backup record type " + peek());
+        }
+    }
+
+    // Reads the next record, which must be a group
+    public ContactGroup readGroup() throws IOException {
+        expect(GROUP);
+        int gid = readVarInt();
+        return new ContactGroup(gid, readString());
+    }
+
+    // Reads the next record, which must be a membership
+    public GroupMembership readMembership() throws IOException {
+        expect(MEMBERSHIP);
+        int gid = readVarInt();
+        int cid = readVarInt();
+        return new GroupMembership(gid, cid, version >= 3 ? readTimestamp() : null);
+    }
+
+    // Reads the next record, which must be a removed membership: {gid, cid}
+    public int[] readMembershipTombstone() throws IOException {
+        expect(MEMBERSHIP_TOMBSTONE);
+        return new int[]{readVarInt(), readVarInt()};
+    }
+
+    // Reads the next record, which must be a user setting: {username, theme}
+    public String[] readSetting() throws IOException {
+        expect(SETTING);
+        return new String[]{readString(), readString()};
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private void expect(int type) throws IOException {
+        int next = peek();
+        if (next != type) {
+            throw new IOException("Expected backup record type " + type + " but found " + next);
+        }
+        position++;
+    }
+
+    // Inflates and verifies the next block; false at the end marker
+    private boolean readBlock() throws IOException {
+        int rawLength;
+        int compressedLength;
+        int checksum;
+        try {
+            rawLength = in.readInt();
+            compressedLength = in.readInt();
+            checksum = in.readInt();
+            if (rawLength == 0) {
+                ended = true;
+                return false;
+            }
+            if (rawLength < 0 || compressedLength < 0) {
+                throw new IOException("Backup block " + blocks + " has an invalid header");
+            }
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            in.readFully(compressed, 0, compressedLength);
+        } catch (EOFException e) {
+            throw new IOException("Backup file is truncated after block " + blocks, e);
+        }
+
+        if (block.length < rawLength) {
+            block = new byte[rawLength];
+        }
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(block, n, rawLength - n);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += inflated;
+            }
+            if (n != rawLength) {
+                throw new IOException("Backup block " + blocks + " is corrupt (length mismatch)");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Backup block " + blocks + " is corrupt", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(block, 0, rawLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Backup block " + blocks + " is corrupt (checksum mismatch)");
+        }
+        position = 0;
+        limit = rawLength;
+        blocks++;
+        return true;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in backup block " + blocks);
+    }
+
+    private String readString() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > limit - position) {
+            throw new IOException("Malformed text in backup block " + blocks);
+        }
+        String value = new String(block, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private LocalDateTime readTimestamp() throws IOException {
+        long millis = 0;
+        for (int i = 0; i < 8; i++) {
+            millis = (millis << 8) | (readByte() & 0xFF);
+        }
+        return fromMillis(millis);
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    // Records never span blocks
+    private byte readByte() throws IOException {
+        if (position == limit) {
+            throw new IOException("Record crosses the end of backup block " + blocks);
+        }
+        return block[position++];
+    }
+}
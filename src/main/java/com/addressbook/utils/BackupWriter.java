@@ -0,0 +1,252 @@
+package com.addressbook.utils;
+
+import com.addressbook.model.ContactDTO;
+import com.addressbook.model.ContactGroup;
+import com.addressbook.model.GroupMembership;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the binary backup format read by {@link BackupReader}.
+ *
+ * The file starts with the magic "ABKP", a format version (int) and the
+ * {@link BackupInfo}: id, parent id, since and watermark (four longs). Records
+ * are packed into blocks of about 1 MiB; each block is written as
+ * rawLength, compressedLength and the CRC32 of the raw bytes (three ints),
+ * followed by the Deflate-compressed bytes. A block with rawLength 0 ends the
+ * file, so a truncated file is detected. Blocks are compressed in parallel on
+ * the common fork-join pool and written in order.
+ *
+ * A record is a type byte followed by its fields: ints as unsigned varints,
+ * strings as a varint of the UTF-8 length plus one (0 for null) and the bytes,
+ * timestamps as a long of epoch milliseconds (Long.MIN_VALUE for null).
+ * Since version 3 a membership carries its addedAt, and an incremental backup
+ * holds only the memberships added or removed since its parent.
+ */
+public class BackupWriter implements Closeable {
+    static final byte[] MAGIC = {'A', 'B', 'K', 'P'};
+    static final int VERSION = 3;
+    static final int BLOCK_SIZE = 1 << 20;
+
+    private static final int MAX_PENDING_BLOCKS = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final OutputStream out;
+    private final BackupInfo info;
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block = new byte[BLOCK_SIZE + 4096];
+    private int length;
+    private long records;
+
+    public BackupWriter(OutputStream out, BackupInfo info) throws IOException {
+        this.out = out;
+        this.info = info;
+        out.write(MAGIC);
+        writeInt(out, VERSION);
+        writeLong(out, info.getId());
+        writeLong(out, info.getParentId());
+        writeLong(out, toMillis(info.getSince()));
+        writeLong(out, toMillis(info.getWatermark()));
+    }
+
+    public BackupInfo getInfo() {
+        return info;
+    }
+
+    public void writeContact(ContactDTO contact) throws IOException {
+        writeByte(BackupReader.CONTACT);
+        writeVarInt(contact.getCid());
+        writeString(contact.getFirstName());
+        writeString(contact.getLastName());
+        writeString(contact.getLocation());
+        writeString(contact.getPhone());
+        writeString(contact.getEmail());
+        writeTimestamp(contact.getCreatedAt());
+        writeTimestamp(contact.getUpdatedAt());
+        endRecord();
+    }
+
+    // A contact deleted since the parent backup
+    public void writeTombstone(int cid) throws IOException {
+        writeByte(BackupReader.TOMBSTONE);
+        writeVarInt(cid);
+        endRecord();
+    }
+
+    public void writeGroup(ContactGroup group) throws IOException {
+        writeByte(BackupReader.GROUP);
+        writeVarInt(group.getGid());
+        writeString(group.getName());
+        endRecord();
+    }
+
+    public void writeMembership(GroupMembership membership) throws IOException {
+        writeByte(BackupReader.MEMBERSHIP);
+        writeVarInt(membership.getGid());
+        writeVarInt(membership.getCid());
+        writeTimestamp(membership.getAddedAt());
+        endRecord();
+    }
+
+    // A membership removed since the parent backup while its group and contact remain
+    public void writeMembershipTombstone(int gid, int cid) throws IOException {
+        writeByte(BackupReader.MEMBERSHIP_TOMBSTONE);
+        writeVarInt(gid);
+        writeVarInt(cid);
+        endRecord();
+    }
+
+    public void writeSetting(String username, String theme) throws IOException {
+        writeByte(BackupReader.SETTING);
+        writeString(username);
+        writeString(theme);
+        endRecord();
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Writes the last block and the end marker, then closes the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+            while (!pending.isEmpty()) {
+                writeNextBlock();
+            }
+            writeInt(out, 0);
+            writeInt(out, 0);
+            writeInt(out, 0);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void endRecord() throws IOException {
+        records++;
+        if (length >= BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        byte[] raw = Arrays.copyOf(block, length);
+        length = 0;
+        pending.add(CompletableFuture.supplyAsync(() -> compress(raw)));
+        while (pending.size() > MAX_PENDING_BLOCKS) {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        try {
+            out.write(pending.poll().join());
+        } catch (CompletionException e) {
+            throw new IOException("Failed to compress backup block", e.getCause());
+        }
+    }
+
+    // The framed block: raw length, compressed length, CRC32 of the raw bytes, compressed bytes
+    private static byte[] compress(byte[] raw) {
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] framed = new byte[12 + raw.length / 2 + 64];
+            int n = 12;
+            while (!deflater.finished()) {
+                if (n == framed.length) {
+                    framed = Arrays.copyOf(framed, framed.length * 2);
+                }
+                n += deflater.deflate(framed, n, framed.length - n);
+            }
+            putInt(framed, 0, raw.length);
+            putInt(framed, 4, n - 12);
+            putInt(framed, 8, (int) crc.getValue());
+            return Arrays.copyOf(framed, n);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        block[length++] = (byte) value;
+    }
+
+    private void writeVarInt(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            block[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block[length++] = (byte) value;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, block, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeTimestamp(LocalDateTime value) {
+        long millis = toMillis(value);
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            block[length++] = (byte) (millis >>> shift);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length * 2, length + bytes));
+        }
+    }
+
+    static long toMillis(LocalDateTime value) {
+        return value != null ? value.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        writeInt(out, (int) (value >>> 32));
+        writeInt(out, (int) value);
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        byte[] bytes = new byte[4];
+        putInt(bytes, 0, value);
+        out.write(bytes);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,139 @@
+package com.addressbook.utils;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for RFC 4180 CSV.
+ *
+ * Handles quoted fields containing commas, line breaks and doubled quotes,
+ * and both CRLF and LF line endings. Records are read one at a time from an
+ * internal buffer, so memory use does not depend on the file size.
+ * Malformed input (e.g. text after a closing quote) is kept rather than rejected.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Wraps a byte stream in a reader, honouring a UTF-8 or UTF-16 byte order
+     * mark and otherwise decoding with the given charset.
+     */
+    public static Reader open(InputStream in, Charset defaultCharset) throws IOException {
+        BufferedInputStream stream = new BufferedInputStream(in, BUFFER_SIZE);
+        stream.mark(3);
+        int b0 = stream.read();
+        int b1 = stream.read();
+        int b2 = stream.read();
+        Charset charset = defaultCharset;
+        int bomLength = 0;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            charset = StandardCharsets.UTF_8;
+            bomLength = 3;
+        } else if (b0 == 0xFE && b1 == 0xFF) {
+            charset = StandardCharsets.UTF_16BE;
+            bomLength = 2;
+        } else if (b0 == 0xFF && b1 == 0xFE) {
+            charset = StandardCharsets.UTF_16LE;
+            bomLength = 2;
+        }
+        stream.reset();
+        stream.skipNBytes(bomLength);
+        return new InputStreamReader(stream, charset);
+    }
+
+    /**
+     * Returns the next record's fields, or null at end of input. A blank line
+     * yields a single empty field.
+     */
+    public String[] readRecord() throws IOException {
+        int c = next();
+        if (c < 0) {
+            return null;
+        }
+        fields.clear();
+        while (true) {
+            field.setLength(0);
+            if (c == '"') {
+                c = readQuoted();
+            }
+            while (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                field.append((char) c);
+                c = next();
+            }
+            fields.add(field.toString());
+            if (c == ',') {
+                c = next();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                next();
+            }
+            return fields.toArray(new String[0]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Reads a quoted field body and returns the first character after the closing quote
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = next();
+            if (c < 0) {
+                return c;
+            }
+            if (c == '"') {
+                if (peek() != '"') {
+                    return next();
+                }
+                next();
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,221 @@
+package com.addressbook.utils;
+
+import com.addressbook.dao.ConnectionFactory;
+import com.addressbook.dao.ContactDAO;
+import com.addressbook.model.ContactDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic generator of realistic contacts for scale and soak testing.
+ *
+ * The same seed always yields the same sequence. Names are drawn from
+ * German-leaning, partly non-ASCII pools with a Zipf skew, so a few names and
+ * cities dominate as in real data. Every contact passes ContactValidator:
+ * phones are E.164 mobile numbers with 12-13 digits (the validator requires at
+ * least 12), and emails are ASCII-folded from the name. The email carries the
+ * sequence number, so (firstName, lastName, email) never repeats and the rows
+ * satisfy the unique_contact constraint.
+ *
+ * Run from the command line to write a CSV file or load the database:
+ * <pre>
+ * java -cp "out/production/addressbook:lib/*" com.addressbook.utils.SyntheticContactGenerator csv contacts.csv 1000000 [seed]
+ * java -cp "out/production/addressbook:lib/*" com.addressbook.utils.SyntheticContactGenerator db 1000000 [seed]
+ * </pre>
+ */
+public class SyntheticContactGenerator {
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] FIRST_NAMES = {
+            "Lukas", "Anna", "Hans", "Sophie", "Leon", "Marie", "Jürgen", "Emma", "Felix", "Mia",
+            "Jonas", "Hannah", "Björn", "Lea", "Sören", "Zoë", "Maximilian", "Lena", "Paul", "Chloé",
+            "Mehmet", "Ayşe", "Łukasz", "Olga", "José", "Ingrid", "Günter", "Käthe", "Matthias", "Noémie"
+    };
+    private static final String[] LAST_NAMES = {
+            "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann",
+            "Schäfer", "Koch", "Bauer", "Richter", "Klein", "Wolf", "Schröder", "Neumann", "Schwarz", "Zimmermann",
+            "Weiß", "Groß", "Öztürk", "Yılmaz", "Kowalski", "Nowak", "García", "Dubois", "Rossi", "Jäger"
+    };
+    private static final String[] LOCATIONS = {
+            "Berlin", "Hamburg", "München", "Köln", "Frankfurt am Main", "Stuttgart", "Düsseldorf", "Leipzig",
+            "Dortmund", "Essen", "Bremen", "Dresden", "Hannover", "Nürnberg", "Duisburg", "Bochum", "Wien",
+            "Zürich", "Graz", "Salzburg", "Münster", "Lübeck", "Würzburg", "Göttingen", "Saarbrücken"
+    };
+    private static final String[] DOMAINS = {
+            "gmail.com", "web.de", "gmx.de", "t-online.de", "outlook.com", "yahoo.de", "gmx.at", "icloud.com",
+            "posteo.de", "mailbox.org", "example.de", "firma.de", "uni-hamburg.de", "bluewin.ch"
+    };
+    // Country code followed by a mobile prefix; all yield 12 or 13 digits in total
+    private static final String[][] PHONE_PLANS = {
+            {"+49", "151", "8"}, {"+49", "160", "8"}, {"+49", "170", "8"}, {"+49", "176", "8"},
+            {"+43", "664", "7"}, {"+43", "676", "8"}, {"+44", "7", "9"}, {"+39", "3", "9"}
+    };
+    private static final double[] FIRST_NAME_WEIGHTS = zipf(FIRST_NAMES.length, 0.9);
+    private static final double[] LAST_NAME_WEIGHTS = zipf(LAST_NAMES.length, 1.0);
+    private static final double[] LOCATION_WEIGHTS = zipf(LOCATIONS.length, 1.2);
+    private static final double[] DOMAIN_WEIGHTS = zipf(DOMAINS.length, 1.1);
+    private static final double[] PHONE_WEIGHTS = zipf(PHONE_PLANS.length, 0.8);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2019, 1, 1, 0, 0);
+    private static final int CREATED_SPAN_SECONDS = 6 * 365 * 24 * 3600;
+
+    private final Random random;
+    private long sequence;
+
+    public SyntheticContactGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the next contact. Its cid is the 1-based sequence number.
+     */
+    public ContactDTO next() {
+        long id = ++sequence;
+        String firstName = FIRST_NAMES[pick(FIRST_NAME_WEIGHTS)];
+        String lastName = LAST_NAMES[pick(LAST_NAME_WEIGHTS)];
+
+        ContactDTO contact = new ContactDTO();
+        contact.setCid((int) Math.min(Integer.MAX_VALUE, id));
+        contact.setFirstName(firstName);
+        contact.setLastName(lastName);
+        contact.setLocation(LOCATIONS[pick(LOCATION_WEIGHTS)]);
+        contact.setPhone(phone());
+        contact.setEmail(email(firstName, lastName, id));
+
+        LocalDateTime createdAt = EPOCH.plusSeconds(random.nextInt(CREATED_SPAN_SECONDS));
+        contact.setCreatedAt(createdAt);
+        // Most contacts are never edited after creation
+        contact.setUpdatedAt(random.nextInt(10) < 7 ? createdAt : createdAt.plusSeconds(random.nextInt(CREATED_SPAN_SECONDS / 6)));
+        return contact;
+    }
+
+    public void forEach(long count, Consumer<ContactDTO> sink) {
+        for (long i = 0; i < count; i++) {
+            sink.accept(next());
+        }
+    }
+
+    public List<ContactDTO> generate(int count) {
+        List<ContactDTO> contacts = new ArrayList<>(count);
+        forEach(count, contacts::add);
+        return contacts;
+    }
+
+    /**
+     * Writes contacts in the CSV layout the import understands.
+     */
+    public void writeCsv(Path file, long count) throws IOException {
+        try (CsvWriter writer = new CsvWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 256 * 1024))) {
+            writer.writeRecord("FirstName", "LastName", "Location", "Phone", "Email");
+            for (long i = 0; i < count; i++) {
+                ContactDTO contact = next();
+                writer.writeRecord(contact.getFirstName(), contact.getLastName(), contact.getLocation(),
+                        contact.getPhone(), contact.getEmail());
+            }
+        }
+    }
+
+    /**
+     * Inserts contacts through the DAO's batched insert. Returns the rows inserted.
+     */
+    public long load(ContactDAO contactDAO, long count) {
+        int batchSize = contactDAO.getBatchSize();
+        List<ContactDTO> batch = new ArrayList<>(batchSize);
+        long inserted = 0;
+        for (long i = 0; i < count; i++) {
+            batch.add(next());
+            if (batch.size() == batchSize) {
+                inserted += contactDAO.addContactsBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            inserted += contactDAO.addContactsBatch(batch);
+        }
+        return inserted;
+    }
+
+    private String phone() {
+        String[] plan = PHONE_PLANS[pick(PHONE_WEIGHTS)];
+        int digits = Integer.parseInt(plan[2]);
+        StringBuilder phone = new StringBuilder(16).append(plan[0]).append(plan[1]);
+        // Subscriber numbers do not start with 0
+        phone.append((char) ('1' + random.nextInt(9)));
+        for (int i = 1; i < digits; i++) {
+            phone.append((char) ('0' + random.nextInt(10)));
+        }
+        return phone.toString();
+    }
+
+    private String email(String firstName, String lastName, long id) {
+        String first = ascii(firstName);
+        String last = ascii(lastName);
+        String local = switch (random.nextInt(4)) {
+            case 0 -> first + "." + last;
+            case 1 -> first.charAt(0) + "." + last;
+            case 2 -> first + last;
+            default -> first + "_" + last;
+        };
+        return local + Long.toString(id, 36) + "@" + DOMAINS[pick(DOMAIN_WEIGHTS)];
+    }
+
+    // Lower-case ASCII as mail providers spell it: ü -> ue, ß -> ss, é -> e
+    static String ascii(String name) {
+        String folded = name.toLowerCase(Locale.ROOT)
+                .replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss")
+                .replace("ł", "l").replace("ı", "i");
+        folded = Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("[^a-z0-9]", "");
+        return folded.isEmpty() ? "contact" : folded;
+    }
+
+    private int pick(double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    // Cumulative Zipf distribution over ranks 1..n with exponent s
+    private static double[] zipf(int n, double s) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            total += 1 / Math.pow(rank, s);
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("csv")) {
+            long count = Long.parseLong(args[2]);
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+            new SyntheticContactGenerator(seed).writeCsv(Path.of(args[1]), count);
+            System.out.println("Wrote " + count + " contacts to " + args[1]);
+        } else if (args.length >= 2 && args[0].equals("db")) {
+            long count = Long.parseLong(args[1]);
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+            ConnectionFactory connectionFactory = new ConnectionFactory();
+            long inserted = new SyntheticContactGenerator(seed).load(new ContactDAO(connectionFactory), count);
+            System.out.println("Inserted " + inserted + " of " + count + " contacts");
+        } else {
+            System.err.println("Usage: SyntheticContactGenerator csv <file> <count> [seed]");
+            System.err.println("       SyntheticContactGenerator db <count> [seed]");
+            System.exit(2);
+        }
+    }
+}
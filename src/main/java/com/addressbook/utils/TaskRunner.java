@@ -0,0 +1,272 @@
+package com.addressbook.utils;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs data work off the event dispatch thread.
+ *
+ * Tasks execute on a small bounded pool. If a task is still running after a
+ * short delay, a progress dialog with a Cancel button is shown. The result (or
+ * the error) is always delivered back on the EDT via SwingUtilities.invokeLater.
+ */
+public final class TaskRunner {
+	private static final Logger LOGGER = Logger.getLogger(TaskRunner.class.getName());
+
+	private static final int POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	private static final int QUEUE_CAPACITY = 64;
+	private static final int PROGRESS_DIALOG_DELAY_MS = 400;
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+	private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+		POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+		new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+		r -> {
+			Thread thread = new Thread(r, "background-task-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	static {
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private TaskRunner() {
+	}
+
+	/**
+	 * Work to run in the background. Long loops should call
+	 * {@link TaskContext#checkCancelled()} regularly and report progress.
+	 */
+	@FunctionalInterface
+	public interface Task<T> {
+		T run(TaskContext context) throws Exception;
+	}
+
+	/**
+	 * Handed to a running task to report progress and observe cancellation.
+	 */
+	public static final class TaskContext {
+		private volatile boolean cancelled;
+		private volatile Runnable cancelHook;
+		private JProgressBar progressBar;
+		private JLabel messageLabel;
+		// Latest values, applied when the dialog appears
+		private volatile String message = "Working...";
+		private volatile int lastPercent = -1;
+
+		public boolean isCancelled() {
+			return cancelled || Thread.currentThread().isInterrupted();
+		}
+
+		public void checkCancelled() {
+			if (isCancelled()) {
+				throw new CancellationException("Task cancelled");
+			}
+		}
+
+		/**
+		 * Registers an action to run when the user cancels, e.g. Statement::cancel
+		 * to abort a query that is blocked inside the driver.
+		 */
+		public void onCancel(Runnable hook) {
+			this.cancelHook = hook;
+			if (cancelled) {
+				hook.run();
+			}
+		}
+
+		public void setProgress(long done, long total) {
+			int percent = total > 0 ? (int) Math.min(100, done * 100 / total) : -1;
+			if (percent == lastPercent) {
+				return;
+			}
+			lastPercent = percent;
+			SwingUtilities.invokeLater(() -> {
+				if (progressBar != null) {
+					progressBar.setIndeterminate(percent < 0);
+					if (percent >= 0) {
+						progressBar.setValue(percent);
+					}
+				}
+			});
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+			SwingUtilities.invokeLater(() -> {
+				if (messageLabel != null) {
+					messageLabel.setText(message);
+				}
+			});
+		}
+
+		void cancel() {
+			cancelled = true;
+			Runnable hook = cancelHook;
+			if (hook != null) {
+				try {
+					hook.run();
+				} catch (RuntimeException e) {
+					LOGGER.log(Level.FINE, "Cancel hook failed", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Handle for a submitted task.
+	 */
+	public static final class TaskHandle {
+		private final TaskContext context;
+		private volatile Future<?> future;
+
+		private TaskHandle(TaskContext context) {
+			this.context = context;
+		}
+
+		public void cancel() {
+			context.cancel();
+			Future<?> f = future;
+			if (f != null) {
+				f.cancel(true);
+			}
+		}
+
+		public boolean isCancelled() {
+			return context.cancelled;
+		}
+	}
+
+	/**
+	 * Runs the task in the background, showing a progress dialog titled with the
+	 * given title while it runs. onSuccess runs on the EDT; failures are reported
+	 * with an error dialog. Must be called on the EDT.
+	 */
+	public static <T> TaskHandle run(Component parent, String title, Task<T> task, Consumer<T> onSuccess) {
+		return submit(parent, title, task, onSuccess, error -> ModernDialog.showMessage(parent,
+			title,
+			"Error: " + (error.getMessage() != null ? error.getMessage() : error.toString()),
+			ModernDialog.DialogType.ERROR));
+	}
+
+	/**
+	 * Like {@link #run} but without a progress dialog and with a custom error
+	 * handler (also invoked on the EDT). Suited to short background refreshes.
+	 */
+	public static <T> TaskHandle runQuietly(Task<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+		return submit(null, null, task, onSuccess, onError);
+	}
+
+	private static <T> TaskHandle submit(Component parent, String title, Task<T> task,
+										 Consumer<T> onSuccess, Consumer<Throwable> onError) {
+		TaskContext context = new TaskContext();
+		TaskHandle handle = new TaskHandle(context);
+		ProgressDialog progress = title != null ? new ProgressDialog(parent, title, handle, context) : null;
+
+		try {
+			handle.future = EXECUTOR.submit(() -> {
+				T result;
+				try {
+					result = task.run(context);
+				} catch (Throwable error) {
+					SwingUtilities.invokeLater(() -> {
+						if (progress != null) {
+							progress.close();
+						}
+						if (!context.cancelled && !(error instanceof CancellationException)) {
+							LOGGER.log(Level.SEVERE, "Background task failed" + (title != null ? ": " + title : ""), error);
+							onError.accept(error);
+						}
+					});
+					return;
+				}
+				SwingUtilities.invokeLater(() -> {
+					if (progress != null) {
+						progress.close();
+					}
+					if (!context.cancelled) {
+						onSuccess.accept(result);
+					}
+				});
+			});
+		} catch (RejectedExecutionException e) {
+			if (progress != null) {
+				progress.close();
+			}
+			onError.accept(new IllegalStateException("Too many background tasks are running. Please try again.", e));
+		}
+		return handle;
+	}
+
+	// Modeless dialog that appears only for tasks that take noticeable time
+	private static final class ProgressDialog {
+		private final Timer showTimer;
+		private JDialog dialog;
+		private boolean closed;
+
+		ProgressDialog(Component parent, String title, TaskHandle handle, TaskContext context) {
+			showTimer = new Timer(PROGRESS_DIALOG_DELAY_MS, e -> {
+				if (closed) {
+					return;
+				}
+				Window owner = parent != null ? SwingUtilities.getWindowAncestor(parent) : null;
+				if (owner == null && parent instanceof Window window) {
+					owner = window;
+				}
+				dialog = new JDialog(owner, title, Dialog.ModalityType.MODELESS);
+				dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+				JLabel messageLabel = new JLabel(context.message);
+				messageLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+				JProgressBar progressBar = new JProgressBar(0, 100);
+				progressBar.setIndeterminate(context.lastPercent < 0);
+				progressBar.setValue(Math.max(0, context.lastPercent));
+				progressBar.setStringPainted(false);
+				context.messageLabel = messageLabel;
+				context.progressBar = progressBar;
+
+				JButton cancel = new JButton("Cancel");
+				cancel.addActionListener(ev -> {
+					handle.cancel();
+					close();
+				});
+
+				JPanel content = new JPanel(new BorderLayout(0, 10));
+				content.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+				content.add(messageLabel, BorderLayout.NORTH);
+				content.add(progressBar, BorderLayout.CENTER);
+				JPanel footer = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+				footer.add(cancel);
+				content.add(footer, BorderLayout.SOUTH);
+
+				dialog.add(content);
+				dialog.setPreferredSize(new Dimension(420, 160));
+				dialog.pack();
+				dialog.setLocationRelativeTo(parent);
+				dialog.setVisible(true);
+			});
+			showTimer.setRepeats(false);
+			showTimer.start();
+		}
+
+		void close() {
+			closed = true;
+			showTimer.stop();
+			if (dialog != null) {
+				dialog.dispose();
+				dialog = null;
+			}
+		}
+	}
+}
@@ -6,6 +6,10 @@ GO
 USE AddressBook;
 GO
 
+-- sqlcmd defaults to QUOTED_IDENTIFIER OFF, which indexed computed columns do not allow
+SET QUOTED_IDENTIFIER ON;
+GO
+
 -- Create a new table named Contacts
 CREATE TABLE Contacts
 (
@@ -34,6 +38,9 @@ CREATE TABLE Contacts
     -- Column to track the last update time, defaults to the current date and time
     updatedAt DATETIME DEFAULT GETDATE(),
 
+    -- Domain part of the email address, stored so it can be indexed for domain filters
+    emailDomain AS SUBSTRING(email, CHARINDEX('@', email) + 1, 255) PERSISTED,
+
     -- Unique constraint to ensure no duplicate contacts with the same first name, last name, and email
     CONSTRAINT unique_contact UNIQUE (firstName, lastName, email)
 );
@@ -43,6 +50,106 @@ GO
 CREATE INDEX idx_email ON Contacts (email);
 CREATE INDEX idx_location ON Contacts (location);
 
+-- Supports incremental refresh of the application's contact cache
+CREATE INDEX idx_updatedAt ON Contacts (updatedAt);
+
+-- Support the application's server-side filters (location, email domain, phone prefix) and sorts
+CREATE INDEX idx_emailDomain ON Contacts (emailDomain);
+CREATE INDEX idx_phone ON Contacts (phone);
+CREATE INDEX idx_lastName ON Contacts (lastName);
+
+-- Named groups of contacts, e.g. "Customers"
+CREATE TABLE ContactGroups
+(
+    gid       INT IDENTITY (1,1) PRIMARY KEY,
+    name      NVARCHAR(100) NOT NULL,
+    createdAt DATETIME DEFAULT GETDATE(),
+    CONSTRAINT unique_group_name UNIQUE (name)
+);
+GO
+
+-- Group membership; rows go away with their group or contact
+CREATE TABLE ContactGroupMembers
+(
+    gid     INT NOT NULL REFERENCES ContactGroups (gid) ON DELETE CASCADE,
+    cid     INT NOT NULL REFERENCES Contacts (cid) ON DELETE CASCADE,
+    addedAt DATETIME NOT NULL DEFAULT GETDATE(),
+    CONSTRAINT pk_group_members PRIMARY KEY (gid, cid)
+);
+GO
+
+-- Supports the cascade when contacts are deleted
+CREATE INDEX idx_groupMembers_cid ON ContactGroupMembers (cid);
+-- Finds the memberships added since the last backup
+CREATE INDEX idx_groupMembers_addedAt ON ContactGroupMembers (addedAt);
+
+-- Per-user application settings (theme)
+CREATE TABLE UserSettings
+(
+    username NVARCHAR(128) NOT NULL PRIMARY KEY,
+    theme    NVARCHAR(64)  NOT NULL
+);
+GO
+
+-- Ids of deleted contacts, kept for incremental backups
+CREATE TABLE ContactTombstones
+(
+    cid       INT PRIMARY KEY,
+    deletedAt DATETIME NOT NULL DEFAULT GETDATE()
+);
+CREATE INDEX idx_tombstones_deletedAt ON ContactTombstones (deletedAt);
+GO
+
+CREATE TRIGGER trg_Contacts_tombstones ON Contacts
+AFTER DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    MERGE ContactTombstones AS target
+    USING (SELECT cid FROM deleted) AS source
+    ON target.cid = source.cid
+    WHEN MATCHED THEN UPDATE SET deletedAt = GETDATE()
+    WHEN NOT MATCHED THEN INSERT (cid) VALUES (source.cid);
+END
+GO
+
+-- Memberships removed while their group and contact remain, kept for incremental backups.
+-- Rows removed along with a deleted group or contact are covered by that deletion.
+CREATE TABLE GroupMemberTombstones
+(
+    gid       INT NOT NULL,
+    cid       INT NOT NULL,
+    deletedAt DATETIME NOT NULL DEFAULT GETDATE(),
+    CONSTRAINT pk_member_tombstones PRIMARY KEY (gid, cid)
+);
+CREATE INDEX idx_memberTombstones_deletedAt ON GroupMemberTombstones (deletedAt);
+GO
+
+CREATE TRIGGER trg_ContactGroupMembers_tombstones ON ContactGroupMembers
+AFTER DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    MERGE GroupMemberTombstones AS target
+    USING (SELECT d.gid, d.cid FROM deleted d
+           WHERE EXISTS (SELECT 1 FROM ContactGroups g WHERE g.gid = d.gid)
+             AND EXISTS (SELECT 1 FROM Contacts c WHERE c.cid = d.cid)) AS source
+    ON target.gid = source.gid AND target.cid = source.cid
+    WHEN MATCHED THEN UPDATE SET deletedAt = GETDATE()
+    WHEN NOT MATCHED THEN INSERT (gid, cid) VALUES (source.gid, source.cid);
+END
+GO
+
+-- Backups taken so far; the latest one is the parent of the next incremental backup
+CREATE TABLE BackupHistory
+(
+    backupId  BIGINT   NOT NULL PRIMARY KEY,
+    parentId  BIGINT,
+    watermark DATETIME NOT NULL,
+    createdAt DATETIME DEFAULT GETDATE()
+);
+GO
+
 -- Insert sample contact data into the Contacts table
 INSERT INTO Contacts (firstName, lastName, location, phone, email)
 VALUES ('Hans', 'Müller', 'Berlin', '+491701234567', 'hans.mueller@example.de'),
@@ -9,6 +9,10 @@ GO
 USE AddressBook;
 GO
 
+-- sqlcmd defaults to QUOTED_IDENTIFIER OFF, which indexed computed columns do not allow
+SET QUOTED_IDENTIFIER ON;
+GO
+
 -- Create Contacts table if it doesn't exist
 IF OBJECT_ID('dbo.Contacts', 'U') IS NULL
 BEGIN
@@ -30,6 +34,95 @@ BEGIN
 END
 GO
 
+-- Index used by the application's contact cache to pick up changed rows
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_updatedAt' AND object_id = OBJECT_ID('dbo.Contacts'))
+BEGIN
+    CREATE INDEX idx_updatedAt ON Contacts (updatedAt);
+END
+GO
+
+-- Columns and indexes behind the application's server-side sort and filter queries
+IF COL_LENGTH('dbo.Contacts', 'emailDomain') IS NULL
+BEGIN
+    ALTER TABLE Contacts ADD emailDomain AS SUBSTRING(email, CHARINDEX('@', email) + 1, 255) PERSISTED;
+END
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_emailDomain' AND object_id = OBJECT_ID('dbo.Contacts'))
+BEGIN
+    CREATE INDEX idx_emailDomain ON Contacts (emailDomain);
+END
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_phone' AND object_id = OBJECT_ID('dbo.Contacts'))
+BEGIN
+    CREATE INDEX idx_phone ON Contacts (phone);
+END
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_lastName' AND object_id = OBJECT_ID('dbo.Contacts'))
+BEGIN
+    CREATE INDEX idx_lastName ON Contacts (lastName);
+END
+GO
+
+-- Create contact group tables if they don't exist; memberships go away with their group or contact
+IF OBJECT_ID('dbo.ContactGroups', 'U') IS NULL
+BEGIN
+    CREATE TABLE ContactGroups
+    (
+        gid       INT IDENTITY (1,1) PRIMARY KEY,
+        name      NVARCHAR(100) NOT NULL,
+        createdAt DATETIME DEFAULT GETDATE(),
+        CONSTRAINT unique_group_name UNIQUE (name)
+    );
+END
+IF OBJECT_ID('dbo.ContactGroupMembers', 'U') IS NULL
+BEGIN
+    CREATE TABLE ContactGroupMembers
+    (
+        gid INT NOT NULL REFERENCES ContactGroups (gid) ON DELETE CASCADE,
+        cid INT NOT NULL REFERENCES Contacts (cid) ON DELETE CASCADE,
+        CONSTRAINT pk_group_members PRIMARY KEY (gid, cid)
+    );
+    CREATE INDEX idx_groupMembers_cid ON ContactGroupMembers (cid);
+END
+GO
+
+-- Ids of deleted contacts, kept for incremental backups
+IF OBJECT_ID('dbo.ContactTombstones', 'U') IS NULL
+BEGIN
+    CREATE TABLE ContactTombstones
+    (
+        cid       INT PRIMARY KEY,
+        deletedAt DATETIME NOT NULL DEFAULT GETDATE()
+    );
+    CREATE INDEX idx_tombstones_deletedAt ON ContactTombstones (deletedAt);
+END
+GO
+
+CREATE OR ALTER TRIGGER trg_Contacts_tombstones ON Contacts
+AFTER DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    MERGE ContactTombstones AS target
+    USING (SELECT cid FROM deleted) AS source
+    ON target.cid = source.cid
+    WHEN MATCHED THEN UPDATE SET deletedAt = GETDATE()
+    WHEN NOT MATCHED THEN INSERT (cid) VALUES (source.cid);
+END
+GO
+
+-- Backups taken so far; the latest one is the parent of the next incremental backup
+IF OBJECT_ID('dbo.BackupHistory', 'U') IS NULL
+BEGIN
+    CREATE TABLE BackupHistory
+    (
+        backupId  BIGINT   NOT NULL PRIMARY KEY,
+        parentId  BIGINT,
+        watermark DATETIME NOT NULL,
+        createdAt DATETIME DEFAULT GETDATE()
+    );
+END
+GO
+
 -- Create UserSettings table if it doesn't exist
 IF OBJECT_ID('dbo.UserSettings', 'U') IS NULL
 BEGIN